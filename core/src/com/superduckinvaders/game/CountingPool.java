@@ -0,0 +1,114 @@
+package com.superduckinvaders.game;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * A libGDX Pool that keeps count of how it is used, so that how often objects are reused instead of allocated and the
+ * most objects ever in use at once can be checked while tuning pool sizes.
+ *
+ * @param <T> the type of object pooled
+ */
+public abstract class CountingPool<T> extends Pool<T> {
+
+    /**
+     * How many objects have been obtained from this pool.
+     */
+    private int obtained = 0;
+
+    /**
+     * How many obtained objects were reused rather than newly allocated.
+     */
+    private int hits = 0;
+
+    /**
+     * How many obtained objects haven't been freed yet, and the most there have ever been at once.
+     */
+    private int inUse = 0, peakInUse = 0;
+
+    /**
+     * Initialises this CountingPool.
+     *
+     * @param initialCapacity how many free objects to make room for at first
+     * @param max             the most free objects to keep
+     */
+    public CountingPool(int initialCapacity, int max) {
+        super(initialCapacity, max);
+    }
+
+    /**
+     * Gets an object from this pool, reusing a free one if there is one.
+     *
+     * @return the object
+     */
+    @Override
+    public T obtain() {
+        obtained++;
+        if (getFree() > 0) {
+            hits++;
+        }
+
+        inUse++;
+        peakInUse = Math.max(peakInUse, inUse);
+
+        return super.obtain();
+    }
+
+    /**
+     * Puts an object back in this pool to be reused, resetting it if it is Poolable.
+     *
+     * @param object the object to free
+     */
+    @Override
+    public void free(T object) {
+        inUse--;
+        super.free(object);
+    }
+
+    /**
+     * Puts several objects back in this pool to be reused.
+     *
+     * @param objects the objects to free
+     */
+    @Override
+    public void freeAll(Array<T> objects) {
+        inUse -= objects.size;
+        super.freeAll(objects);
+    }
+
+    /**
+     * Gets how many objects have been obtained from this pool.
+     *
+     * @return the number of calls to obtain
+     */
+    public int getObtained() {
+        return obtained;
+    }
+
+    /**
+     * Gets the fraction of obtained objects that were reused rather than newly allocated.
+     *
+     * @return the hit rate, from 0 to 1 (1 if nothing has been obtained yet)
+     */
+    public float getHitRate() {
+        return obtained == 0 ? 1 : (float) hits / obtained;
+    }
+
+    /**
+     * Gets how many obtained objects haven't been freed yet.
+     *
+     * @return the number of objects in use
+     */
+    public int getInUse() {
+        return inUse;
+    }
+
+    /**
+     * Gets the most objects that have ever been in use at once.
+     *
+     * @return the high-water mark of objects in use
+     */
+    public int getPeakInUse() {
+        return peakInUse;
+    }
+}
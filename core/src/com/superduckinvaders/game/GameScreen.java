@@ -1,6 +1,7 @@
 package com.superduckinvaders.game;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
@@ -15,6 +16,7 @@ import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.IntMap;
 import com.superduckinvaders.game.assets.Assets;
 import com.superduckinvaders.game.entity.Entity;
 import com.superduckinvaders.game.entity.Player;
@@ -33,6 +35,11 @@ public class GameScreen implements Screen {
      */
     private boolean gridlines = false;
 
+    /**
+     * Draw how many projectiles there are and how well the particle and text pools are being reused, for debug purposes.
+     */
+    private boolean poolStats = false;
+
     /**
      * The game camera.
      */
@@ -80,6 +87,21 @@ public class GameScreen implements Screen {
      */
     private ArrayList<AnimatedText> animatedTextToDraw = new ArrayList<AnimatedText>();
 
+    /**
+     * AnimatedText objects that have finished, kept to be shown again.
+     */
+    private final CountingPool<AnimatedText> animatedTextPool = new CountingPool<AnimatedText>(16, 128) {
+        @Override
+        protected AnimatedText newObject() {
+            return new AnimatedText();
+        }
+    };
+
+    /**
+     * The text shown for each score gained so far, so the same strings aren't built again for every kill.
+     */
+    private final IntMap<String> scoreStrings = new IntMap<String>();
+
     /**
      * Initialises this GameScreen for the specified round.
      *
@@ -145,7 +167,8 @@ public class GameScreen implements Screen {
      * @param color The colour of the text to display
      */
     public void addAnimatedText(String text, float x, float y, Color color) {
-        AnimatedText animatedText = new AnimatedText(text, x, y, color);
+        AnimatedText animatedText = animatedTextPool.obtain();
+        animatedText.show(text, x, y, color);
         boolean added = false;
         for (int i = 0; i < animatedTextToDraw.size(); i++) {
             // Overwrite null entries
@@ -160,6 +183,24 @@ public class GameScreen implements Screen {
         }
     }
 
+    /**
+     * Adds an AnimatedText showing a gain in score, reusing the text from the last time the same score was gained.
+     *
+     * @param score The score gained
+     * @param x     The x position for the AnimatedText
+     * @param y     The initial y position (will change over its lifetime) for the AnimatedText
+     * @param color The colour of the text to display
+     */
+    public void addScoreText(int score, float x, float y, Color color) {
+        String text = scoreStrings.get(score);
+        if (text == null) {
+            text = "+" + Integer.toString(score);
+            scoreStrings.put(score, text);
+        }
+
+        addAnimatedText(text, x, y, color);
+    }
+
     /**
      * Main game drawing loop.
      *
@@ -167,8 +208,13 @@ public class GameScreen implements Screen {
      */
     @Override
     public void render(float delta) {
-        //update the round game logic.
-        round.update(delta);
+        //press tab to toggle minimap, checked once per frame as the round may take any number of steps.
+        if (Gdx.input.isKeyJustPressed(Input.Keys.TAB)) {
+            Player.minimapOn = !Player.minimapOn;
+        }
+
+        //update the round game logic in fixed steps.
+        round.advance(delta);
 
         //clear the screen with absolute transparency.
         Gdx.gl.glClearColor(0, 0, 0, 1);
@@ -198,6 +244,9 @@ public class GameScreen implements Screen {
             entity.render(spriteBatch);
         }
 
+        // Draw all projectiles in one pass.
+        round.getProjectiles().render(spriteBatch, Assets.projectile, round.getInterpolation());
+
         // Draw animated text
         drawAnimatedText(delta);
 
@@ -235,8 +284,8 @@ public class GameScreen implements Screen {
      */
     private void handlePlayerCamera() {
         // Centre the camera on the player.
-        double cameraX = round.getPlayer().getX() + round.getPlayer().getWidth() / 2;
-        double cameraY = round.getPlayer().getY() + round.getPlayer().getHeight() / 2;
+        double cameraX = round.getPlayer().getRenderX() + round.getPlayer().getWidth() / 2;
+        double cameraY = round.getPlayer().getRenderY() + round.getPlayer().getHeight() / 2;
         float cameraWidth = gameCam.viewportWidth;
         float cameraHeight = gameCam.viewportHeight;
         // Clamp camera position to edges of the map
@@ -357,6 +406,24 @@ public class GameScreen implements Screen {
         Assets.font.draw(spriteBatch, "Objective: " + round.getObjective().getObjectiveString(), 10, 100);
         Assets.font.draw(spriteBatch, "Score: " + round.getPlayer().getScore(), 10, 80);
         Assets.font.draw(spriteBatch, Gdx.graphics.getFramesPerSecond() + " FPS", 10, 60);
+
+        if (poolStats) {
+            Assets.font.draw(spriteBatch, "Projectiles: " + round.getProjectiles().size() + " in flight (peak " + round.getProjectiles().getPeakSize() + ")", 10, 160);
+            drawPoolStats("Particles", round.getParticlePool(), 10, 140);
+            drawPoolStats("Text", animatedTextPool, 10, 120);
+        }
+    }
+
+    /**
+     * Draws how well a pool is being reused: its hit rate, and how many of its objects are in use now and at most.
+     *
+     * @param name the name to show for the pool
+     * @param pool the pool
+     * @param x    the x position to draw at
+     * @param y    the y position to draw at
+     */
+    private void drawPoolStats(String name, CountingPool<?> pool, int x, int y) {
+        Assets.font.draw(spriteBatch, name + ": " + Math.round(pool.getHitRate() * 100) + "% reused, " + pool.getInUse() + " in use (peak " + pool.getPeakInUse() + ")", x, y);
     }
 
     /**
@@ -369,8 +436,11 @@ public class GameScreen implements Screen {
             AnimatedText animatedText = animatedTextToDraw.get(i);
             if (animatedText == null) continue;
             boolean timerNotFinished = animatedText.draw(spriteBatch, delta);
-            // If timer on text is finished set it to null to allow it to be picked up by the garbage collector
-            if (!timerNotFinished) animatedTextToDraw.set(i, null);
+            // If timer on text is finished put it back in the pool and free its slot
+            if (!timerNotFinished) {
+                animatedTextToDraw.set(i, null);
+                animatedTextPool.free(animatedText);
+            }
         }
     }
 
@@ -0,0 +1,241 @@
+package com.superduckinvaders.game;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.entity.SpatialGrid;
+import com.superduckinvaders.game.map.CompiledMap;
+
+/**
+ * Chooses where to spawn groups of mobs. The tiles a mob can stand on are found once when the Round is created, and
+ * each group is then placed by Poisson-disk sampling over the free tiles near the player, so mobs are spread out,
+ * never overlap and no spawn attempt is wasted on a blocked position.
+ */
+public final class MobSpawner {
+
+    /**
+     * How far apart mobs are spread on the first pass, as a multiple of the smallest spacing that stops them overlapping.
+     */
+    private static final int SPREAD = 2;
+
+    /**
+     * The map mobs are spawned on.
+     */
+    private final CompiledMap map;
+
+    /**
+     * The size of the mobs being spawned, in pixels.
+     */
+    private final int mobWidth, mobHeight;
+
+    /**
+     * Whether a mob placed at the bottom left corner of each tile would be clear of blocked tiles.
+     */
+    private final boolean[] freeTiles;
+
+    /**
+     * The free tiles near the player considered for the current group, as tile indices.
+     */
+    private final IntArray candidates = new IntArray();
+
+    /**
+     * Grid of accepted samples used to check spacing. Each entry is the index of a sample in the positions array plus
+     * one, valid only if the matching stamp is the current one.
+     */
+    private int[] sampleGrid = new int[0], sampleStamps = new int[0];
+
+    /**
+     * Incremented every time the sample grid is reset so it doesn't need clearing.
+     */
+    private int stamp = 0;
+
+    /**
+     * The size of one cell of the sample grid and how many cells there are horizontally.
+     */
+    private int sampleCellSize, sampleColumns;
+
+    /**
+     * Initialises this MobSpawner and finds the free tiles on the map.
+     *
+     * @param map       the map to spawn mobs on
+     * @param mobWidth  the width of the mobs to spawn
+     * @param mobHeight the height of the mobs to spawn
+     */
+    public MobSpawner(CompiledMap map, int mobWidth, int mobHeight) {
+        this.map = map;
+        this.mobWidth = mobWidth;
+        this.mobHeight = mobHeight;
+
+        freeTiles = new boolean[map.getWidth() * map.getHeight()];
+
+        for (int tileY = 0; tileY < map.getHeight(); tileY++) {
+            for (int tileX = 0; tileX < map.getWidth(); tileX++) {
+                int x = tileX * map.getTileWidth(), y = tileY * map.getTileHeight();
+
+                freeTiles[tileX + tileY * map.getWidth()] = x + mobWidth <= map.getMapWidth() && y + mobHeight <= map.getMapHeight()
+                        && !map.overlaps(x, y, mobWidth, mobHeight, CompiledMap.BLOCKED | CompiledMap.OBSTACLE);
+            }
+        }
+    }
+
+    /**
+     * Chooses positions for a group of mobs around a point. Each position is offset from the point by between the
+     * minimum and maximum distance on both axes, as with random spawning, and isn't blocked by the map or by an
+     * existing character. Mobs are first spread out widely and then packed closer if there isn't enough room.
+     *
+     * @param amount     how many mobs to place
+     * @param centreX    the x coordinate to spawn the mobs around
+     * @param centreY    the y coordinate to spawn the mobs around
+     * @param minX       the minimum x distance from the centre
+     * @param minY       the minimum y distance from the centre
+     * @param maxX       the maximum x distance from the centre
+     * @param maxY       the maximum y distance from the centre
+     * @param characters the characters already in the Round
+     * @param positions  the array to add the chosen x and y coordinates to, in pairs
+     * @return how many positions were chosen, which is less than the amount asked for if there wasn't enough room
+     */
+    public int choose(int amount, double centreX, double centreY, int minX, int minY, int maxX, int maxY, SpatialGrid characters, IntArray positions) {
+        int tileWidth = map.getTileWidth(), tileHeight = map.getTileHeight();
+        int minTileX = Math.max(0, (int) Math.floor((centreX - maxX) / tileWidth));
+        int maxTileX = Math.min(map.getWidth() - 1, (int) Math.floor((centreX + maxX) / tileWidth));
+        int minTileY = Math.max(0, (int) Math.floor((centreY - maxY) / tileHeight));
+        int maxTileY = Math.min(map.getHeight() - 1, (int) Math.floor((centreY + maxY) / tileHeight));
+
+        // Find the free tiles in the spawn area.
+        candidates.clear();
+        for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+            double offsetY = Math.abs(tileY * tileHeight - centreY);
+
+            if (offsetY < minY || offsetY > maxY) {
+                continue;
+            }
+
+            for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                double offsetX = Math.abs(tileX * tileWidth - centreX);
+
+                if (offsetX >= minX && offsetX <= maxX && freeTiles[tileX + tileY * map.getWidth()]) {
+                    candidates.add(tileX + tileY * map.getWidth());
+                }
+            }
+        }
+
+        // Mobs this far apart can never overlap each other.
+        int spacing = (int) Math.ceil(Math.sqrt(mobWidth * mobWidth + mobHeight * mobHeight));
+        int start = positions.size;
+        int chosen = sample(amount, spacing * SPREAD, start, characters, positions, 0);
+
+        if (chosen < amount) {
+            chosen = sample(amount, spacing, start, characters, positions, chosen);
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Makes one pass of dart throwing over the candidate tiles in a random order, accepting each tile that is at
+     * least the specified spacing from every position accepted so far.
+     *
+     * @param amount     how many positions are needed in total
+     * @param spacing    the minimum distance between positions, in pixels
+     * @param start      the index in the positions array where this group's positions start
+     * @param characters the characters already in the Round
+     * @param positions  the positions array
+     * @param chosen     how many positions have already been chosen for this group
+     * @return how many positions have been chosen for this group after this pass
+     */
+    private int sample(int amount, int spacing, int start, SpatialGrid characters, IntArray positions, int chosen) {
+        resetSampleGrid(spacing);
+
+        for (int i = 0; i < chosen; i++) {
+            addSample(start, i, positions);
+        }
+
+        // Partial Fisher-Yates shuffle, so each candidate is tried once in a random order.
+        int[] tiles = candidates.items;
+        for (int remaining = candidates.size; remaining > 0 && chosen < amount; remaining--) {
+            int pick = MathUtils.random(remaining - 1);
+            int tile = tiles[pick];
+            tiles[pick] = tiles[remaining - 1];
+            tiles[remaining - 1] = tile;
+
+            int x = (tile % map.getWidth()) * map.getTileWidth();
+            int y = (tile / map.getWidth()) * map.getTileHeight();
+
+            if (isSpaced(x, y, spacing, start, positions) && characters.findIntersecting(x, y, mobWidth, mobHeight, null, Entity.CHARACTERS) == null) {
+                positions.add(x);
+                positions.add(y);
+                addSample(start, chosen, positions);
+                chosen++;
+            }
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Clears the sample grid and sizes it for the specified spacing, so that each cell holds at most one sample.
+     *
+     * @param spacing the minimum distance between samples, in pixels
+     */
+    private void resetSampleGrid(int spacing) {
+        sampleCellSize = Math.max(1, (int) (spacing / Math.sqrt(2)));
+        sampleColumns = map.getMapWidth() / sampleCellSize + 1;
+        int cells = sampleColumns * (map.getMapHeight() / sampleCellSize + 1);
+
+        if (sampleGrid.length < cells) {
+            sampleGrid = new int[cells];
+            sampleStamps = new int[cells];
+        }
+
+        stamp++;
+    }
+
+    /**
+     * Records an accepted sample in the sample grid.
+     *
+     * @param start     the index in the positions array where this group's positions start
+     * @param index     the index of the sample within this group
+     * @param positions the positions array
+     */
+    private void addSample(int start, int index, IntArray positions) {
+        int cell = positions.get(start + index * 2) / sampleCellSize + (positions.get(start + index * 2 + 1) / sampleCellSize) * sampleColumns;
+
+        sampleGrid[cell] = index + 1;
+        sampleStamps[cell] = stamp;
+    }
+
+    /**
+     * Gets whether a position is at least the specified spacing from every sample accepted so far.
+     *
+     * @param x         the x coordinate of the position
+     * @param y         the y coordinate of the position
+     * @param spacing   the minimum distance between samples, in pixels
+     * @param start     the index in the positions array where this group's positions start
+     * @param positions the positions array
+     * @return true if the position is far enough from every sample
+     */
+    private boolean isSpaced(int x, int y, int spacing, int start, IntArray positions) {
+        int column = x / sampleCellSize, row = y / sampleCellSize;
+        int rows = sampleGrid.length / sampleColumns;
+
+        // The cells are spacing / sqrt(2) wide, so any sample within the spacing is at most two cells away.
+        for (int checkRow = Math.max(0, row - 2); checkRow <= Math.min(rows - 1, row + 2); checkRow++) {
+            for (int checkColumn = Math.max(0, column - 2); checkColumn <= Math.min(sampleColumns - 1, column + 2); checkColumn++) {
+                int cell = checkColumn + checkRow * sampleColumns;
+
+                if (sampleStamps[cell] != stamp || sampleGrid[cell] == 0) {
+                    continue;
+                }
+
+                int index = start + (sampleGrid[cell] - 1) * 2;
+                double deltaX = positions.get(index) - x, deltaY = positions.get(index + 1) - y;
+
+                if (deltaX * deltaX + deltaY * deltaY < spacing * spacing) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}
@@ -1,20 +1,33 @@
 package com.superduckinvaders.game;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Pool;
 import com.superduckinvaders.game.ai.BossAI;
+import com.superduckinvaders.game.ai.ClusterGraph;
+import com.superduckinvaders.game.ai.FlowField;
+import com.superduckinvaders.game.ai.PathBroker;
+import com.superduckinvaders.game.ai.PathStrategy;
+import com.superduckinvaders.game.ai.TileGraph;
 import com.superduckinvaders.game.ai.ZombieAI;
 import com.superduckinvaders.game.assets.Assets;
 import com.superduckinvaders.game.assets.TextureSet;
-import com.superduckinvaders.game.entity.Character;
 import com.superduckinvaders.game.entity.*;
+import com.superduckinvaders.game.entity.Character;
 import com.superduckinvaders.game.entity.item.Item;
 import com.superduckinvaders.game.entity.item.Powerup;
 import com.superduckinvaders.game.entity.item.Upgrade;
+import com.superduckinvaders.game.map.ClearanceMap;
+import com.superduckinvaders.game.map.CompiledMap;
+import com.superduckinvaders.game.map.LineOfSight;
 import com.superduckinvaders.game.objective.CollectObjective;
 import com.superduckinvaders.game.objective.Objective;
 import com.superduckinvaders.game.objective.SurviveObjective;
@@ -27,6 +40,21 @@ import java.util.List;
  */
 public final class Round {
 
+    /**
+     * How much frame time hasn't been simulated yet, always less than one step after advancing.
+     */
+    private float accumulator = 0;
+
+    /**
+     * How far through the next simulation step the last frame was drawn, from 0 to 1.
+     */
+    private float interpolation = 1;
+
+    /**
+     * How many mobs the survive objective's respawns couldn't find room for yet, added to the next respawn.
+     */
+    private int missingRespawns = 0;
+
     /**
      * Boolean representing whether or not a boss has already been spawned.
      */
@@ -47,11 +75,32 @@ public final class Round {
      */
     private static final int UPDATE_DISTANCE = DuckGame.GAME_WIDTH / 2;
 
+    /**
+     * How much time each simulation step covers, in seconds.
+     */
+    public static final float TIMESTEP = 1 / 60f;
+
+    /**
+     * The most simulation steps to run in one frame when catching up after a slow one. Any more time than that is
+     * dropped, so the game slows down rather than spending ever longer catching up.
+     */
+    public static final int MAX_STEPS = 5;
+
     /**
      * Double indicating the chance of spawning a ranged mob.
      */
     private static final double RANGED_MOB_SPAWNRATE = 0.1;
 
+    /**
+     * How far from the player mobs can follow the flow field, in tiles.
+     */
+    private static final int FLOW_FIELD_RADIUS = 24;
+
+    /**
+     * How long to spend on path searches each frame when there are no pathfinding workers, in microseconds.
+     */
+    private static final int PATHFINDING_BUDGET = 1000;
+
     /**
      * Total number of mobs to spawn at start of round
      */
@@ -72,25 +121,117 @@ public final class Round {
      */
     private TiledMapTileLayer obstaclesLayer;
 
+    /**
+     * Flattened copy of the map's collision, obstacle and water data.
+     */
+    private CompiledMap compiledMap;
+
+    /**
+     * Answers line of sight queries against tiles that block projectiles, cached for each frame.
+     */
+    private LineOfSight lineOfSight;
+
+    /**
+     * The room around each tile for walking things, shared by the tile graphs for every size of mob.
+     */
+    private ClearanceMap clearanceMap;
+
     /**
      * The player.
      */
     private Player player;
 
     /**
-     * Array of all entities currently in the Round.
+     * Array of all entities currently in the Round, in the order they were added (which is the order they are drawn in).
      */
     private List<Entity> entities;
 
     /**
-     * The current objective.
+     * The characters (the player and the mobs) currently in the Round.
      */
-    private Objective objective;
+    private final List<Character> characters = new ArrayList<Character>(256);
+
+    /**
+     * The mobs currently in the Round.
+     */
+    private final List<Mob> mobs = new ArrayList<Mob>(256);
+
+    /**
+     * The items (powerups, upgrades and the objective) currently in the Round.
+     */
+    private final List<Item> items = new ArrayList<Item>();
+
+    /**
+     * The projectiles currently in the Round.
+     */
+    private ProjectileSystem projectiles;
+
+    /**
+     * The particle effects currently in the Round.
+     */
+    private final List<Particle> particles = new ArrayList<Particle>(64);
+
+    /**
+     * Spatial index of every character in the Round, used for collision checks.
+     */
+    private SpatialGrid characterGrid;
+
+    /**
+     * Particles that have finished, kept to be shown again.
+     */
+    private final CountingPool<Particle> particlePool = new CountingPool<Particle>(32, 256) {
+        @Override
+        protected Particle newObject() {
+            return new Particle(Round.this);
+        }
+    };
 
     /**
-     * A counter representing the total number of mobs in the round.
+     * Chooses where to place mobs when spawning them in bulk.
      */
-    private int mobCount;
+    private MobSpawner mobSpawner;
+
+    /**
+     * The tile graphs built so far for pathfinding, keyed by the size of box they were built for.
+     */
+    private final IntMap<TileGraph> tileGraphs = new IntMap<TileGraph>();
+
+    /**
+     * The cluster graphs built so far for long range pathfinding, keyed the same way as the tile graphs.
+     */
+    private final IntMap<ClusterGraph> clusterGraphs = new IntMap<ClusterGraph>();
+
+    /**
+     * Runs the path searches asked for by AIs within a time budget each frame.
+     */
+    private PathBroker pathBroker;
+
+    /**
+     * Directions towards the player shared by all chasing mobs.
+     */
+    private FlowField flowField;
+
+    /**
+     * Reused to hold the positions chosen by the mob spawner.
+     */
+    private final IntArray spawnPositions = new IntArray();
+
+    /**
+     * Where every character was at the start of the current step, used for side-effect free collision queries. Nothing
+     * collides with items or particles, so only the characters are copied.
+     */
+    private CollisionSnapshot collisionWorld;
+
+    /**
+     * The snapshot from the step before, refilled and swapped in at the start of the next step so neither is ever
+     * reallocated.
+     */
+    private CollisionSnapshot spareCollisionWorld;
+
+    /**
+     * The current objective.
+     */
+    private Objective objective;
 
     /**
      * Handles cheat codes.
@@ -109,19 +250,33 @@ public final class Round {
 
         // Choose which obstacles to use.
         obstaclesLayer = chooseObstacles();
+        compiledMap = new CompiledMap(map, obstaclesLayer);
+        lineOfSight = new LineOfSight(compiledMap, CompiledMap.BLOCKED | CompiledMap.OBSTACLE);
+        clearanceMap = new ClearanceMap(compiledMap, CompiledMap.BLOCKED | CompiledMap.OBSTACLE);
 
         // Create array of entities firstly so we can add the game entities to it after the fact.
         entities = new ArrayList<Entity>(128);
+        characterGrid = new SpatialGrid(getMapWidth() / getTileWidth(), getMapHeight() / getTileHeight(), getTileWidth(), getTileHeight());
+        projectiles = new ProjectileSystem(compiledMap, characterGrid, Assets.projectile.getRegionWidth(), Assets.projectile.getRegionHeight(), 256);
+        mobSpawner = new MobSpawner(compiledMap, Assets.badGuyNormal.getWidth(), Assets.badGuyNormal.getHeight());
+        pathBroker = new PathBroker(PATHFINDING_BUDGET);
+
+        // Precompute the cluster graphs for normal mobs and the boss so long range searches are cheap from the start.
+        getClusterGraph(Assets.badGuyNormal.getWidth(), Assets.badGuyNormal.getHeight());
+        getClusterGraph(Assets.bossNormal.getWidth(), Assets.bossNormal.getHeight());
+        flowField = new FlowField(getTileGraph(Assets.badGuyNormal.getWidth(), Assets.badGuyNormal.getHeight()), FLOW_FIELD_RADIUS);
 
         // Spawn player at map defined spawn point (default 0, 0).
         spawnPlayer(testPowerups);
+        updateFlowFieldTarget();
 
         // Set up the Round objective.
         initObjective();
 
-        // Initialise the mobCount and then spawn the specified number of mobs in the Round.
-        this.mobCount = 0;
+        // Spawn the specified number of mobs in the Round (a shortfall on a crowded map is logged).
         spawnRandomMobs(NUMBER_OF_MOBS, 100, 100, 2000, 2000);
+        collisionWorld = new CollisionSnapshot(compiledMap, characters);
+        spareCollisionWorld = new CollisionSnapshot(compiledMap);
 
         cheatProcessor = new CheatProcessor(this);
     }
@@ -139,7 +294,7 @@ public final class Round {
         int startX = Integer.parseInt(map.getProperties().get("StartX", "0", String.class)) * getTileWidth();
         int startY = Integer.parseInt(map.getProperties().get("StartY", "0", String.class)) * getTileHeight();
         player = new Player(this, startX, startY);
-        entities.add(player);
+        addEntity(player);
 
         if (testing) spawnTestingPowerups(startX, startY);
     }
@@ -182,7 +337,7 @@ public final class Round {
                 Item objective = new Item(this, objectiveX, objectiveY, Assets.flag);
                 setObjective(new CollectObjective(this, objective));
 
-                entities.add(objective);
+                addEntity(objective);
                 break;
 
             case (Objective.SURVIVE_OBJECTIVE):
@@ -214,21 +369,50 @@ public final class Round {
     }
 
     /**
-     * Spawns a number of random mobs the specified distance from the player.
+     * Spawns a number of random mobs the specified distance from the player. The mobs are spread out over the free
+     * tiles in the area. If there isn't enough room for all of them, the rest are spread over an area twice as far
+     * out, and any still left over are logged.
      *
      * @param amount how many random mobs to spawn
      * @param minX   the minimum x distance from the player to spawn the mobs
      * @param minY   the minimum y distance from the player to spawn the mobs
      * @param maxX   the maximum x distance from the player to spawn the mobs
      * @param maxY   the maximum y distance from the player to spawn the mobs
+     * @return how many mobs were spawned, which is less than the amount if there wasn't enough room even further out
      */
-    private void spawnRandomMobs(int amount, int minX, int minY, int maxX, int maxY) {
-        for (int i = 0; i < amount; i++) {
-            int x = MathUtils.random(minX, maxX) * (MathUtils.randomBoolean() ? -1 : 1);
-            int y = MathUtils.random(minY, maxY) * (MathUtils.randomBoolean() ? -1 : 1);
-            createMob(getPlayer().getX() + x, getPlayer().getY() + y, 100, Assets.badGuyNormal, 100);
-            mobCount += 1;
+    private int spawnRandomMobs(int amount, int minX, int minY, int maxX, int maxY) {
+        int spawned = placeRandomMobs(amount, minX, minY, maxX, maxY);
+
+        if (spawned < amount) {
+            spawned += placeRandomMobs(amount - spawned, minX, minY, maxX * 2, maxY * 2);
         }
+
+        if (spawned < amount) {
+            Gdx.app.log("Round", "Only found room for " + spawned + " of " + amount + " mobs");
+        }
+
+        return spawned;
+    }
+
+    /**
+     * Places a number of random mobs the specified distance from the player, as far as there is room.
+     *
+     * @param amount how many random mobs to place
+     * @param minX   the minimum x distance from the player to place the mobs
+     * @param minY   the minimum y distance from the player to place the mobs
+     * @param maxX   the maximum x distance from the player to place the mobs
+     * @param maxY   the maximum y distance from the player to place the mobs
+     * @return how many mobs were placed
+     */
+    private int placeRandomMobs(int amount, int minX, int minY, int maxX, int maxY) {
+        spawnPositions.clear();
+        int placed = mobSpawner.choose(amount, getPlayer().getX(), getPlayer().getY(), minX, minY, maxX, maxY, characterGrid, spawnPositions);
+
+        for (int i = 0; i < placed; i++) {
+            addMob(spawnPositions.get(i * 2), spawnPositions.get(i * 2 + 1), 100, Assets.badGuyNormal, 100);
+        }
+
+        return placed;
     }
 
     /**
@@ -240,6 +424,24 @@ public final class Round {
         return map;
     }
 
+    /**
+     * Gets the compiled form of the map used for fast tile lookups
+     *
+     * @return this Round's compiled map
+     */
+    public CompiledMap getCompiledMap() {
+        return compiledMap;
+    }
+
+    /**
+     * Gets the line of sight service for this round
+     *
+     * @return the line of sight queries for this Round's map, blocked by anything that stops a projectile
+     */
+    public LineOfSight getLineOfSight() {
+        return lineOfSight;
+    }
+
     /**
      * Gets the base layer of the map
      *
@@ -282,7 +484,7 @@ public final class Round {
      * @return the width of this Round's map in pixels
      */
     public int getMapWidth() {
-        return (int) (getBaseLayer().getWidth() * getBaseLayer().getTileWidth());
+        return compiledMap.getMapWidth();
     }
 
     /**
@@ -291,7 +493,7 @@ public final class Round {
      * @return the height of this Round's map in pixels
      */
     public int getMapHeight() {
-        return (int) (getBaseLayer().getHeight() * getBaseLayer().getTileHeight());
+        return compiledMap.getMapHeight();
     }
 
     /**
@@ -300,7 +502,7 @@ public final class Round {
      * @return the width of one tile in this Round's map
      */
     public int getTileWidth() {
-        return (int) getBaseLayer().getTileWidth();
+        return compiledMap.getTileWidth();
     }
 
     /**
@@ -309,7 +511,7 @@ public final class Round {
      * @return the height of one tile in this Round's map
      */
     public int getTileHeight() {
-        return (int) getBaseLayer().getTileHeight();
+        return compiledMap.getTileHeight();
     }
 
     /**
@@ -342,12 +544,174 @@ public final class Round {
     }
 
     /**
-     * Adds an entity to the entity list.
+     * Gets the mobs in the round
+     *
+     * @return the list of mobs currently in the Round
+     */
+    public List<Mob> getMobs() {
+        return mobs;
+    }
+
+    /**
+     * Gets the projectiles in the round
+     *
+     * @return the system holding every projectile currently in the Round
+     */
+    public ProjectileSystem getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * Gets the spatial index of all characters in the round
+     *
+     * @return the spatial grid containing every character currently in the Round
+     */
+    public SpatialGrid getCharacterGrid() {
+        return characterGrid;
+    }
+
+    /**
+     * Gets the graph of tiles a box of the specified size can stand on, making it the first time it is asked for.
+     *
+     * @param width  the width of the box
+     * @param height the height of the box
+     * @return the tile graph for boxes of that size
+     */
+    public synchronized TileGraph getTileGraph(int width, int height) {
+        int key = (width << 16) | height;
+        TileGraph graph = tileGraphs.get(key);
+
+        if (graph == null) {
+            graph = new TileGraph(clearanceMap, width, height);
+            tileGraphs.put(key, graph);
+        }
+
+        return graph;
+    }
+
+    /**
+     * Gets the cluster graph over the tiles a box of the specified size can stand on, building it and handing it to the
+     * path broker the first time it is asked for.
+     *
+     * @param width  the width of the box
+     * @param height the height of the box
+     * @return the cluster graph for boxes of that size
+     */
+    public synchronized ClusterGraph getClusterGraph(int width, int height) {
+        int key = (width << 16) | height;
+        ClusterGraph clusterGraph = clusterGraphs.get(key);
+
+        if (clusterGraph == null) {
+            clusterGraph = new ClusterGraph(getTileGraph(width, height));
+            clusterGraphs.put(key, clusterGraph);
+            pathBroker.addClusterGraph(clusterGraph);
+        }
+
+        return clusterGraph;
+    }
+
+    /**
+     * Gets the path broker that runs AI path searches
+     *
+     * @return this Round's path broker
+     */
+    public PathBroker getPathBroker() {
+        return pathBroker;
+    }
+
+    /**
+     * Gets the pool that particles are shown from, to check how well it is reused.
+     *
+     * @return this Round's particle pool
+     */
+    public CountingPool<Particle> getParticlePool() {
+        return particlePool;
+    }
+
+    /**
+     * Gets how mobs on this round's map should search for paths, from the map's PathStrategy property. Jump point
+     * search only pays off on maps where it skips enough tiles to make up for the extra work it does per tile, so maps
+     * have to ask for it (PathfindingBenchmark in the tests measures both on every level map).
+     *
+     * @return the path strategy named by the map, or A_STAR if it names none or one that doesn't exist
+     */
+    public PathStrategy getPathStrategy() {
+        String name = map.getProperties().get("PathStrategy", PathStrategy.A_STAR.name(), String.class);
+
+        try {
+            return PathStrategy.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            Gdx.app.log("Round", "Unknown path strategy " + name + ", using A_STAR");
+            return PathStrategy.A_STAR;
+        }
+    }
+
+    /**
+     * Gets the flow field leading to the player
+     *
+     * @return the flow field shared by mobs chasing the player
+     */
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    /**
+     * Points the flow field at the tile the player is currently on. The field is only rebuilt if this is a new tile.
+     */
+    private void updateFlowFieldTarget() {
+        flowField.setTarget((int) Math.floor(player.getX() / getTileWidth()), (int) Math.floor(player.getY() / getTileHeight()));
+    }
+
+    /**
+     * Gets the collision snapshot for the current frame
+     *
+     * @return the positions of all colliding entities at the start of this frame, with the compiled map
+     */
+    public CollisionWorld getCollisionWorld() {
+        return collisionWorld;
+    }
+
+    /**
+     * Finds the characters within a radius (and optionally a facing cone) of a point, nearest first.
+     *
+     * @param x       the x coordinate of the centre of the search
+     * @param y       the y coordinate of the centre of the search
+     * @param radius  how far from the centre to search, in pixels
+     * @param facing  only find characters in this direction from the centre (one of the FACING_ constants in
+     *                TextureSet), or -1 to search in all directions
+     * @param limit   the maximum number of characters to find, or 0 for no limit
+     * @param ignore  a character to leave out of the search (usually the one asking), or null
+     * @param results the array to clear and fill with the characters found, ordered by increasing distance
+     * @return how many characters were found
+     */
+    public int findCharactersNear(double x, double y, double radius, int facing, int limit, Entity ignore, Array<Entity> results) {
+        return characterGrid.findNearest(x, y, radius, facing, limit, ignore, results);
+    }
+
+    /**
+     * Adds an entity to the entity list, and to the bucket for its kind.
      *
      * @param newEntity new entity of any type
      */
     public void addEntity(Entity newEntity) {
         entities.add(newEntity);
+
+        // Sort the entity into its bucket once here, so the loops over each kind never need to check.
+        if (newEntity instanceof Character) {
+            characters.add((Character) newEntity);
+
+            if (newEntity instanceof Mob) {
+                mobs.add((Mob) newEntity);
+            }
+        } else if (newEntity instanceof Particle) {
+            particles.add((Particle) newEntity);
+        } else if (newEntity instanceof Item) {
+            items.add((Item) newEntity);
+        }
+
+        if ((newEntity.getCategory() & Entity.CHARACTERS) != 0) {
+            characterGrid.add(newEntity);
+        }
     }
 
     /**
@@ -369,7 +733,7 @@ public final class Round {
     }
 
     /**
-     * Creates a new projectile and adds it to the list of entities.
+     * Fires a new projectile.
      *
      * @param x               the initial x coordinate
      * @param y               the initial y coordinate
@@ -382,7 +746,7 @@ public final class Round {
      * @param owner           the owner of the projectile (i.e. the one who fired it)
      */
     public void createProjectile(double x, double y, double targetX, double targetY, double speed, double velocityXOffset, double velocityYOffset, int damage, Entity owner) {
-        entities.add(new Projectile(this, x, y, targetX, targetY, speed, velocityXOffset, velocityYOffset, damage, owner));
+        projectiles.fire(x, y, targetX, targetY, speed, velocityXOffset, velocityYOffset, damage, owner);
     }
 
     /**
@@ -394,7 +758,9 @@ public final class Round {
      * @param animation the animation to use for the particle effect
      */
     public void createParticle(double x, double y, double duration, Animation animation) {
-        entities.add(new Particle(this, x - animation.getKeyFrame(0).getRegionWidth() / 2, y - animation.getKeyFrame(0).getRegionHeight() / 2, duration, animation));
+        Particle particle = particlePool.obtain();
+        particle.show(x - animation.getKeyFrame(0).getRegionWidth() / 2, y - animation.getKeyFrame(0).getRegionHeight() / 2, duration, animation);
+        addEntity(particle);
     }
 
     /**
@@ -405,7 +771,7 @@ public final class Round {
      * @param powerup the powerup to grant to the player
      */
     public void createPowerup(double x, double y, Player.Powerup powerup) {
-        entities.add(new Powerup(this, x, y, powerup));
+        addEntity(new Powerup(this, x, y, powerup));
     }
 
     /**
@@ -416,7 +782,7 @@ public final class Round {
      * @param upgrade the upgrade to grant to the player
      */
     public void createUpgrade(double x, double y, Player.Upgrade upgrade) {
-        entities.add(new Upgrade(this, x, y, upgrade));
+        addEntity(new Upgrade(this, x, y, upgrade));
     }
 
     /**
@@ -430,31 +796,47 @@ public final class Round {
      * @return true if the mob was successfully added, false if there was an intersection and the mob wasn't added
      */
     public boolean createMob(double x, double y, int health, TextureSet textureSet, int speed) {
-        float random = MathUtils.random();
-        Mob mob;
+        if (!isSpawnFree(x, y, textureSet)) {
+            return false;
+        }
 
+        addMob(x, y, health, textureSet, speed);
+        return true;
+    }
+
+    /**
+     * Creates a mob and adds it to the list of entities without checking whether there is room for it.
+     *
+     * @param x          the initial x coordinate
+     * @param y          the initial y coordinate
+     * @param health     the initial health of the mob
+     * @param textureSet the texture set to use
+     * @param speed      how fast the mob moves in pixels per second
+     */
+    private void addMob(double x, double y, int health, TextureSet textureSet, int speed) {
         //spawn mobs as ranged mobs with probability of RANGED_MOB_SPAWNRATE
-        if (random < RANGED_MOB_SPAWNRATE) {
-            mob = new Mob(this, x, y, health, textureSet, speed, new ZombieAI(this, 32), true, false);
-        } else {
-            mob = new Mob(this, x, y, health, textureSet, speed, new ZombieAI(this, 32), false, false);
-        }
+        boolean ranged = MathUtils.random() < RANGED_MOB_SPAWNRATE;
+
+        addEntity(new Mob(this, x, y, health, textureSet, speed, new ZombieAI(this, 32), ranged, false));
+    }
 
+    /**
+     * Gets whether a mob with the specified texture set could be placed at the specified coordinates.
+     *
+     * @param x          the x coordinate
+     * @param y          the y coordinate
+     * @param textureSet the texture set the mob would use
+     * @return true if the mob would be inside the map and not intersect another character or a blocked tile
+     */
+    private boolean isSpawnFree(double x, double y, TextureSet textureSet) {
         // Check mob isn't out of bounds.
         if (x < 0 || x > getMapWidth() - textureSet.getWidth() || y < 0 || y > getMapHeight() - textureSet.getHeight()) {
             return false;
         }
 
-        // Check mob doesn't intersect anything.
-        for (Entity entity : entities) {
-            if (entity instanceof Character
-                    && (mob.intersects(entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight()) || mob.collidesX(0) || mob.collidesY(0))) {
-                return false;
-            }
-        }
-
-        entities.add(mob);
-        return true;
+        // Check mob doesn't intersect another character or a blocked tile.
+        return characterGrid.findIntersecting(x, y, textureSet.getWidth(), textureSet.getHeight(), null, Entity.CHARACTERS) == null
+                && !compiledMap.overlaps(x, y, textureSet.getWidth(), textureSet.getHeight(), CompiledMap.BLOCKED | CompiledMap.OBSTACLE);
     }
 
     /**
@@ -468,20 +850,11 @@ public final class Round {
      * @return true if the mob was successfully added, false if there was an intersection and the mob wasn't added
      */
     private boolean createBoss(double x, double y, int health, TextureSet textureSet, int speed) {
-        Mob mob;
-        mob = new Mob(this, x, y, health, textureSet, speed, new BossAI(this, 32), false, true);
-        // Check mob isn't out of bounds.
-        if (x < 0 || x > getMapWidth() - textureSet.getWidth() || y < 0 || y > getMapHeight() - textureSet.getHeight()) {
+        if (!isSpawnFree(x, y, textureSet)) {
             return false;
         }
-        // Check mob doesn't intersect anything.
-        for (Entity entity : entities) {
-            if (entity instanceof Character
-                    && (mob.intersects(entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight()) || mob.collidesX(0) || mob.collidesY(0))) {
-                return false;
-            }
-        }
-        entities.add(mob);
+
+        addEntity(new Mob(this, x, y, health, textureSet, speed, new BossAI(this, 32), false, true));
         return true;
     }
 
@@ -507,55 +880,143 @@ public final class Round {
     }
 
     /**
-     * Updates all entities in this Round.
+     * Updates all entities in this Round, and removes the ones marked as removed. Each kind of entity is updated from
+     * its own bucket, so nothing needs to check what kind an entity is. Removed entities are dropped from every list by
+     * moving the live ones down over them as the list is walked, keeping their order, and cutting off the leftover end
+     * in one go. Every live entity is updated exactly once, including ones added while walking (which are appended).
      * @param delta the time elapsed since the last update
      */
     private void updateEntities(float delta) {
-        for (int i = 0; i < entities.size(); i++) {
-            Entity entity = entities.get(i);
+        // The render order and characters only need the removed entities dropping, the passes below deal with what
+        // removing each kind of entity means.
+        compact(entities);
+        compact(characters);
 
-            // for each entity update target position x and y with player x and y.
-            if (entity instanceof Mob) {
-                if (((Mob) entity).isRanged()) {
-                    ((Mob) entity).updateTargetPosition(player.getX(), player.getY());
+        if (player.isRemoved()) {
+            characterGrid.remove(player);
+        } else {
+            player.update(delta);
+        }
+
+        updateMobs(delta);
+        updateBucket(items, null, delta);
+        projectiles.update(delta);
+        updateBucket(particles, particlePool, delta);
+    }
+
+    /**
+     * Updates the mobs in this Round, scoring for the ones that have been killed and removing them.
+     * @param delta the time elapsed since the last update
+     */
+    private void updateMobs(float delta) {
+        int live = 0;
+
+        for (int i = 0; i < mobs.size(); i++) {
+            Mob mob = mobs.get(i);
+
+            if (mob.isRemoved()) {
+                characterGrid.remove(mob);
+
+                int scoreToAdd = 0;
+                if (mob.isBoss()) {
+                    scoreToAdd = (int) (100 * (player.powerupIsActive(Player.Powerup.SCORE_MULTIPLIER) ? Player.PLAYER_SCORE_MULTIPLIER : 1));
+                } else {
+                    scoreToAdd = (int) (10 * (player.powerupIsActive(Player.Powerup.SCORE_MULTIPLIER) ? Player.PLAYER_SCORE_MULTIPLIER : 1));
+                }
+                player.addScore(scoreToAdd);
+
+                //create an animated text to show added score
+                Color textColor;
+                if (scoreToAdd <= 10) {
+                    textColor = Color.WHITE;
+                } else if (scoreToAdd <= 50) {
+                    textColor = Color.RED;
+                } else {
+                    textColor = Color.BLACK;
+                }
+
+                parent.getGameScreen().addScoreText(scoreToAdd, (float) (mob.getX() - mob.getWidth() / 2), (float) mob.getY() + mob.getHeight(), textColor);
+                // Respawn killed enemies on SurviveObjective
+                if (getObjectiveType() == Objective.SURVIVE_OBJECTIVE) {
+                    // Spawns 2 mobs for every 1 you kill. Levels get progressively harder. Mobs there wasn't room
+                    // for are added to the next respawn.
+                    int respawns = 2 + missingRespawns;
+                    missingRespawns = respawns - spawnRandomMobs(respawns, 100, 100, 300, 300);
                 }
+
+                continue;
             }
 
-            if (entity.isRemoved()) {
-                entities.remove(i);
-                if (entity instanceof Mob) {
-                    mobCount--;
+            mobs.set(live++, mob);
 
-                    int scoreToAdd = 0;
-                    if (((Mob) entity).isBoss()) {
-                        scoreToAdd = (int) (100 * (player.powerupIsActive(Player.Powerup.SCORE_MULTIPLIER) ? Player.PLAYER_SCORE_MULTIPLIER : 1));
-                    } else {
-                        scoreToAdd = (int) (10 * (player.powerupIsActive(Player.Powerup.SCORE_MULTIPLIER) ? Player.PLAYER_SCORE_MULTIPLIER : 1));
-                    }
-                    player.addScore(scoreToAdd);
-
-                    //create an animated text to show added score
-                    Color textColor;
-                    if (scoreToAdd <= 10) {
-                        textColor = Color.WHITE;
-                    } else if (scoreToAdd <= 50) {
-                        textColor = Color.RED;
-                    } else {
-                        textColor = Color.BLACK;
-                    }
+            // Ranged mobs aim at wherever the player is now.
+            if (mob.isRanged()) {
+                mob.updateTargetPosition(player.getX(), player.getY());
+            }
 
-                    parent.getGameScreen().addAnimatedText("+" + Integer.toString(scoreToAdd), (float) (entity.getX() - entity.getWidth() / 2), (float) entity.getY() + entity.getHeight(), textColor);
-                    // Respawn killed enemies on SurviveObjective
-                    if (getObjectiveType() == Objective.SURVIVE_OBJECTIVE) {
-                        // Spawns 2 mobs for every 1 you kill. Levels get progressively harder
-                        spawnRandomMobs(2, 100, 100, 300, 300);
-                    }
+            if (mob.distanceTo(player.getX(), player.getY()) < UPDATE_DISTANCE) {
+                // Only fully update mobs that are on screen.
+                mob.update(delta);
+            } else {
+                // Mobs off screen keep closing in on the player, moving in occasional coarse hops.
+                mob.updateDistant(delta);
+            }
+        }
+
+        mobs.subList(live, mobs.size()).clear();
+    }
+
+    /**
+     * Updates the entities in a bucket that are on screen, and removes the ones marked as removed.
+     *
+     * @param bucket the bucket to update
+     * @param pool   the pool to put removed entities back in, or null if they aren't pooled
+     * @param delta  the time elapsed since the last update
+     * @param <T>    the kind of entity in the bucket
+     */
+    private <T extends Entity> void updateBucket(List<T> bucket, Pool<T> pool, float delta) {
+        int live = 0;
+
+        for (int i = 0; i < bucket.size(); i++) {
+            T entity = bucket.get(i);
+
+            if (entity.isRemoved()) {
+                // Nothing else keeps hold of removed particles, so they can go straight back to their pool.
+                if (pool != null) {
+                    pool.free(entity);
                 }
-            } else if (entity.distanceTo(player.getX(), player.getY()) < UPDATE_DISTANCE) {
-                // Don't bother updating entities that aren't on screen.
+                continue;
+            }
+
+            bucket.set(live++, entity);
+
+            // Only update entities that are on screen.
+            if (entity.distanceTo(player.getX(), player.getY()) < UPDATE_DISTANCE) {
                 entity.update(delta);
             }
         }
+
+        bucket.subList(live, bucket.size()).clear();
+    }
+
+    /**
+     * Drops the entities marked as removed from a list, keeping the order of the rest.
+     *
+     * @param list the list to compact
+     * @param <T>  the kind of entity in the list
+     */
+    private static <T extends Entity> void compact(List<T> list) {
+        int live = 0;
+
+        for (int i = 0; i < list.size(); i++) {
+            T entity = list.get(i);
+
+            if (!entity.isRemoved()) {
+                list.set(live++, entity);
+            }
+        }
+
+        list.subList(live, list.size()).clear();
     }
 
     /**
@@ -629,11 +1090,69 @@ public final class Round {
     }
 
     /**
-     * Handles updating of all round specific objects.
+     * Moves the simulation on by the time a frame took, in fixed steps of TIMESTEP so that the game behaves the same
+     * at any frame rate. Time left over that doesn't make up a whole step is carried over to the next frame, and used
+     * to work out how far between steps to draw everything.
+     *
+     * @param frameDelta the time elapsed since the last frame
+     */
+    public void advance(float frameDelta) {
+        accumulator += frameDelta;
+
+        int steps = 0;
+        while (accumulator >= TIMESTEP && steps < MAX_STEPS) {
+            update(TIMESTEP);
+            accumulator -= TIMESTEP;
+            steps++;
+        }
+
+        // Too far behind to catch up, so drop the whole steps that are left.
+        if (accumulator >= TIMESTEP) {
+            accumulator %= TIMESTEP;
+        }
+
+        interpolation = accumulator / TIMESTEP;
+    }
+
+    /**
+     * Gets how far through the next simulation step the current frame is being drawn.
+     *
+     * @return the fraction of a step since the last one, from 0 to 1
+     */
+    public float getInterpolation() {
+        return interpolation;
+    }
+
+    /**
+     * Refills the spare collision snapshot with where everything is now and makes it the current one.
+     */
+    private void swapCollisionWorlds() {
+        CollisionSnapshot next = spareCollisionWorld;
+        next.refill(characters);
+
+        spareCollisionWorld = collisionWorld;
+        collisionWorld = next;
+    }
+
+    /**
+     * Handles updating of all round specific objects. Called once for each fixed step by advance.
      *
      * @param delta the time elapsed since the last update
      */
     public void update(float delta) {
+        // Remember where everything starts this step, to draw it moving smoothly towards where it ends up.
+        for (int i = 0; i < entities.size(); i++) {
+            entities.get(i).savePreviousPosition();
+        }
+
+        // Characters will have moved since the last frame.
+        lineOfSight.clearCache();
+        swapCollisionWorlds();
+        updateFlowFieldTarget();
+
+        // Hand out paths asked for last frame before the AIs run again.
+        pathBroker.update();
+
         updateObjective(delta);
         updateEntities(delta);
 
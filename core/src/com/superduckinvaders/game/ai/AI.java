@@ -1,18 +1,62 @@
 package com.superduckinvaders.game.ai;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.IntArray;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.entity.Mob;
+import com.superduckinvaders.game.entity.Player;
 
 /**
  * Defines movement and attacking behaviour for Mobs.
  */
-public abstract class AI {
+public abstract class AI implements PathListener {
+
+    /**
+     * How often mobs between the near range and the edge of the updated area aim at the player again, in seconds.
+     */
+    public static final float MID_RANGE_RATE = 0.5f;
+
+    /**
+     * The most tiles expanded when searching for a mob far away from the player. Searches that far usually go through
+     * the cluster graph instead.
+     */
+    public static final int DISTANT_NODE_LIMIT = 256;
 
     /**
      * The round the Mob this AI controls is a part of.
      */
     protected Round round;
 
+    /**
+     * The Mob that last asked this AI for a path.
+     */
+    private Mob pathMob = null;
+
+    /**
+     * Whether a path has been asked for and hasn't arrived yet.
+     */
+    private boolean pathRequested = false;
+
+    /**
+     * The start tile, goal tile and expansion limit of the path that was last asked for.
+     */
+    private int requestedStartX, requestedStartY, requestedGoalX, requestedGoalY, requestedMaxNodes;
+
+    /**
+     * The path the mob is currently following.
+     */
+    private final PathFollower pathFollower = new PathFollower();
+
+    /**
+     * How this AI searches for paths.
+     */
+    private PathStrategy pathStrategy = PathStrategy.A_STAR;
+
+    /**
+     * Reused to hold each path after smoothing, before it is copied into a path follower.
+     */
+    private static final IntArray smoothedPath = new IntArray();
+
     /**
      * Initialises this AI.
      *
@@ -22,6 +66,221 @@ public abstract class AI {
         this.round = round;
     }
 
+    /**
+     * Gets how this AI searches for paths.
+     *
+     * @return the path search strategy
+     */
+    public PathStrategy getPathStrategy() {
+        return pathStrategy;
+    }
+
+    /**
+     * Sets how this AI searches for paths.
+     *
+     * @param pathStrategy the path search strategy to use
+     */
+    public void setPathStrategy(PathStrategy pathStrategy) {
+        this.pathStrategy = pathStrategy;
+    }
+
+    /**
+     * Gets the x coordinate of the map tile a mob is on.
+     *
+     * @param mob the mob
+     * @return the column of the tile containing the mob's bottom left corner
+     */
+    protected int getTileX(Mob mob) {
+        return (int) Math.floor(mob.getX() / round.getTileWidth());
+    }
+
+    /**
+     * Gets the y coordinate of the map tile a mob is on.
+     *
+     * @param mob the mob
+     * @return the row of the tile containing the mob's bottom left corner
+     */
+    protected int getTileY(Mob mob) {
+        return (int) Math.floor(mob.getY() / round.getTileHeight());
+    }
+
+    /**
+     * Gets how near the player a mob must be to follow paths every update. Further away, mobs just head straight for
+     * the player, sliding along any walls in the way.
+     *
+     * @return the near range in pixels
+     */
+    protected int getNearRange() {
+        return Gdx.graphics.getWidth() / 4;
+    }
+
+    /**
+     * Sets a mob's velocity to head straight for the player. Walls are left to the mob's own collision sliding.
+     *
+     * @param mob the mob to move
+     */
+    protected void seekPlayer(Mob mob) {
+        Player player = round.getPlayer();
+        mob.setVelocity((int) (player.getX() - mob.getX()), (int) (player.getY() - mob.getY()));
+    }
+
+    /**
+     * Moves a mob that is too far from the player to be updated every frame, a tile at a time along its path to the
+     * player, covering as much ground as it would have walked in the time given. Collisions aren't checked, since the
+     * path is already known to be clear of walls.
+     *
+     * @param mob     the mob to move
+     * @param elapsed how long since the mob last moved, in seconds
+     */
+    public void updateDistant(Mob mob, float elapsed) {
+        TileGraph graph = round.getTileGraph(mob.getWidth(), mob.getHeight());
+        Player player = round.getPlayer();
+        int goalX = (int) Math.floor(player.getX() / round.getTileWidth()), goalY = (int) Math.floor(player.getY() / round.getTileHeight());
+        int tileX = getTileX(mob), tileY = getTileY(mob);
+
+        pathFollower.advance(graph, tileX, tileY);
+
+        if (pathFollower.needsReplan(graph, tileX, tileY, goalX, goalY)) {
+            requestPath(mob, goalX, goalY, DISTANT_NODE_LIMIT);
+        }
+
+        double x = mob.getX(), y = mob.getY();
+        double distanceLeft = mob.getSpeed() * elapsed;
+        int next;
+
+        while (distanceLeft > 0 && (next = pathFollower.getNextTile()) >= 0) {
+            int nextX = next % graph.getWidth(), nextY = next / graph.getWidth();
+            double targetX = nextX * round.getTileWidth(), targetY = nextY * round.getTileHeight();
+            double distance = Math.hypot(targetX - x, targetY - y);
+
+            if (distance > distanceLeft) {
+                x += (targetX - x) * distanceLeft / distance;
+                y += (targetY - y) * distanceLeft / distance;
+                break;
+            }
+
+            x = targetX;
+            y = targetY;
+            distanceLeft -= distance;
+            pathFollower.advance(graph, nextX, nextY);
+        }
+
+        mob.setPosition(x, y);
+    }
+
+    /**
+     * Sets a mob's velocity to take it to the next tile on its way to the player. If the tile is a neighbour, the mob
+     * heads in the direction of the tile, or straight for the tile's corner if heading that way from where it is would
+     * run into something. Tiles further away are the ends of straight segments of a smoothed path, which are known to be
+     * clear, so the mob heads straight for the tile's corner. If the next tile is the one the mob is already on, it must
+     * be the player's tile, so the mob goes straight for the player.
+     *
+     * @param mob   the mob to move
+     * @param nextX the x coordinate of the next tile
+     * @param nextY the y coordinate of the next tile
+     */
+    protected void moveTowardsTile(Mob mob, int nextX, int nextY) {
+        int dirX = nextX - getTileX(mob), dirY = nextY - getTileY(mob);
+
+        if (dirX == 0 && dirY == 0) {
+            Player player = round.getPlayer();
+            mob.setVelocity((int) (player.getX() - mob.getX()), (int) (player.getY() - mob.getY()));
+            return;
+        }
+
+        if (Math.abs(dirX) > 1 || Math.abs(dirY) > 1 || round.getCollisionWorld().collides(mob.getX(), mob.getY(), mob.getWidth(), mob.getHeight(), dirX, dirY, mob.getTerrainMask(), 0, mob)) {
+            dirX = (int) (nextX * round.getTileWidth() - mob.getX());
+            dirY = (int) (nextY * round.getTileHeight() - mob.getY());
+        }
+
+        mob.setVelocity(dirX, dirY);
+    }
+
+    /**
+     * Asks the round's path broker for a path from a mob's tile to a goal tile. Does nothing if a path has already been
+     * asked for and hasn't arrived yet. The mob keeps its current velocity until the path arrives.
+     *
+     * @param mob      the mob to find a path for
+     * @param goalX    the x coordinate of the goal tile
+     * @param goalY    the y coordinate of the goal tile
+     * @param maxNodes the most tiles to expand before settling for getting closer to the goal
+     */
+    protected void requestPath(Mob mob, int goalX, int goalY, int maxNodes) {
+        pathMob = mob;
+
+        if (!pathRequested) {
+            pathRequested = true;
+            requestedStartX = getTileX(mob);
+            requestedStartY = getTileY(mob);
+            requestedGoalX = goalX;
+            requestedGoalY = goalY;
+            requestedMaxNodes = maxNodes;
+            round.getPathBroker().request(round.getTileGraph(mob.getWidth(), mob.getHeight()), pathStrategy, getTileX(mob), getTileY(mob), goalX, goalY, maxNodes, this);
+        }
+    }
+
+    /**
+     * Smooths a path into straight segments and starts the mob that asked for it following it.
+     *
+     * @param graph    the graph that was searched
+     * @param path     the tile indices on the path
+     * @param complete true if the path leads all the way to the goal
+     */
+    @Override
+    public void pathFound(TileGraph graph, IntArray path, boolean complete) {
+        pathRequested = false;
+
+        // Nobody wants the path any more, so don't start following it.
+        if (pathMob == null || pathMob.isRemoved()) {
+            return;
+        }
+
+        int startTile = requestedStartX + requestedStartY * graph.getWidth();
+        PathSmoother.smooth(round.getCollisionWorld(), pathMob, round.getTileWidth(), round.getTileHeight(), graph.getWidth(), startTile, path, smoothedPath);
+        pathFollower.setPath(smoothedPath, startTile, requestedGoalX, requestedGoalY, complete);
+        followPath(pathMob, requestedGoalX, requestedGoalY, requestedMaxNodes);
+    }
+
+    /**
+     * Moves a mob along its current path towards a goal tile, asking for a new path only if the goal has moved too far
+     * from the end of the current one, the mob has strayed from it, or it has run out. While waiting for a new path the
+     * mob keeps following the old one for as long as it can, and otherwise keeps its current velocity.
+     *
+     * @param mob      the mob to move
+     * @param goalX    the x coordinate of the goal tile
+     * @param goalY    the y coordinate of the goal tile
+     * @param maxNodes the most tiles to expand if a new path is needed
+     */
+    protected void followPath(Mob mob, int goalX, int goalY, int maxNodes) {
+        TileGraph graph = round.getTileGraph(mob.getWidth(), mob.getHeight());
+        int tileX = getTileX(mob), tileY = getTileY(mob);
+
+        pathFollower.advance(graph, tileX, tileY);
+
+        if (pathFollower.needsReplan(graph, tileX, tileY, goalX, goalY)) {
+            requestPath(mob, goalX, goalY, maxNodes);
+        }
+
+        int next = pathFollower.getNextTile();
+
+        if (next >= 0) {
+            moveTowardsTile(mob, next % graph.getWidth(), next / graph.getWidth());
+        } else if (tileX == goalX && tileY == goalY) {
+            // On the goal tile, so the path is finished.
+            moveTowardsTile(mob, tileX, tileY);
+        }
+    }
+
+    /**
+     * Stops following the current path, for when a mob gives up on its goal (e.g. to follow the flow field instead).
+     * A path that has been asked for and hasn't arrived yet is thrown away when it does, unless another is asked for
+     * first.
+     */
+    protected void stopFollowingPath() {
+        pathFollower.clear();
+        pathMob = null;
+    }
+
     /**
      * Updates this AI.
      *
@@ -1,15 +1,9 @@
 package com.superduckinvaders.game.ai;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.entity.Mob;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.PriorityQueue;
-
 /**
  * Stronger AI that follows and attacks the player within a certain range.
  */
@@ -21,9 +15,9 @@ public class BossAI extends AI {
     public static final double ATTACK_DELAY = 1;
 
     /**
-     * How many iterations to use in the pathfinding algorithm.
+     * The most map tiles the pathfinding algorithm expands before settling for getting closer to the player.
      */
-    public final static int PATHFINDING_ITERATION_LIMIT = 20;
+    public final static int PATHFINDING_NODE_LIMIT = 256;
 
     /**
      * How often to update the AI.
@@ -110,16 +104,21 @@ public class BossAI extends AI {
         double distanceFromPlayer = mob.distanceTo(playerX, playerY);
 
         currentOffset += delta;
-        if (currentOffset >= deltaOffsetLimit && (int) distanceFromPlayer < Gdx.graphics.getWidth() / 4) {
+        if (currentOffset >= deltaOffsetLimit && (int) distanceFromPlayer >= getNearRange()) {
+            // Too far away to be worth following a path, so just head for the player every so often.
+            deltaOffsetLimit = MID_RANGE_RATE + (MathUtils.random() % PATHFINDING_RATE_OFFSET);
+            currentOffset = 0;
+            stopFollowingPath();
+            seekPlayer(mob);
+        } else if (currentOffset >= deltaOffsetLimit) {
             deltaOffsetLimit = PATHFINDING_RATE + (MathUtils.random() % PATHFINDING_RATE_OFFSET);
             currentOffset = 0;
 
             //Only find a path if we're not already close enough to the player
             if (mob.distanceTo(playerX, playerY) > attackRange / 1.5) {
-                Coordinate targetCoord = findPath(mob);
-                Coordinate targetDir = new Coordinate((int) (targetCoord.x - mob.getX()), (int) (targetCoord.y - mob.getY()));
-                mob.setVelocity(targetDir.x, targetDir.y);
+                findPath(mob);
             } else {
+                stopFollowingPath();
                 mob.setVelocity(0, 0);
                 mob.setFacing(mob.directionTo(playerX, playerY));
             }
@@ -138,187 +137,12 @@ public class BossAI extends AI {
     }
 
     /**
-     * A variation of A* algorithm. Returns a meaningful target coordinate as a pair of integers.
-     * Recalculated every tick as player might move and change pathfinding coordinates.
+     * Moves the mob along its path over the map's tiles to the player's tile, asking for a new path only when the
+     * player has moved too far from the end of the old one or the mob has strayed from it.
      *
-     * @param mob Mob that a path is being generated for
-     * @return Returns a Coordinate for the path finding
-     */
-    private Coordinate findPath(Mob mob) {
-        Coordinate startCoord = new Coordinate((int) mob.getX(), (int) mob.getY());
-        Coordinate finalCoord = new Coordinate(playerX, playerY);
-
-        boolean finalFound = false;
-
-        PriorityQueue<Coordinate> fringe = new PriorityQueue<Coordinate>();
-        HashMap<Coordinate, SearchNode> visitedStates = new HashMap<Coordinate, SearchNode>();
-        fringe.add(startCoord);
-        visitedStates.put(startCoord, new SearchNode(null, 0));
-
-        while (!fringe.isEmpty()) {
-
-            Coordinate currentCoord = fringe.poll();
-            SearchNode currentState = visitedStates.get(currentCoord);
-
-            if (currentState.iteration >= PATHFINDING_ITERATION_LIMIT) {
-                continue;
-            }
-
-            //work out N, E, S, W permutations
-            Coordinate[] perm = new Coordinate[4];
-            perm[0] = new Coordinate(currentCoord.x, currentCoord.y + tileHeight / 4);
-            perm[1] = new Coordinate(currentCoord.x + tileWidth, currentCoord.y);
-            perm[2] = new Coordinate(currentCoord.x, currentCoord.y - tileHeight / 4);
-            perm[3] = new Coordinate(currentCoord.x - tileWidth, currentCoord.y);
-
-            for (Coordinate currentPerm : perm) {
-                if (!(mob.collidesXfrom(currentPerm.x - currentCoord.x, currentCoord.x, currentCoord.y) ||
-                        mob.collidesYfrom(currentPerm.y - currentCoord.y, currentCoord.x, currentCoord.y) ||
-                        visitedStates.containsKey(currentPerm))) {
-                    fringe.add(currentPerm);
-                    visitedStates.put(currentPerm, new SearchNode(currentState, currentState.iteration + 1));
-                }
-                if (currentPerm.inSameTile(finalCoord)) {
-                    visitedStates.put(currentPerm, new SearchNode(currentState, currentState.iteration + 1));
-                    finalCoord = currentPerm;
-                    finalFound = true;
-                    break;
-                }
-            }
-            if (finalFound) break;
-        }
-        if (!finalFound) {
-            return startCoord;
-        } else {
-            SearchNode resultNode = null;
-            List<SearchNode> path = new ArrayList<SearchNode>();
-            path.add(visitedStates.get(finalCoord));
-            while (path.get(path.size() - 1) != visitedStates.get(startCoord)) {
-                path.add(path.get(path.size() - 1).predecessor);
-            }
-            switch (path.size()) {
-                case 1:
-                    resultNode = path.get(path.size() - 1);
-                    break;
-                default:
-                    resultNode = path.get(path.size() - 2);
-                    break;
-            }
-            //for loop below will terminate after at most 4 iterations
-            for (Coordinate key : visitedStates.keySet()) {
-                if (visitedStates.get(key) == resultNode)
-                    return key;
-            }
-        }
-        return startCoord;
-    }
-
-    /**
-     * Represents a pair of coordinates.
+     * @param mob Mob that a path is being followed by
      */
-    class Coordinate implements Comparable<Coordinate> {
-        /**
-         * The X coordinate.
-         */
-        public int x;
-        /**
-         * The Y coordinate.
-         */
-        public int y;
-
-        /**
-         * Initialises this Coordinate.
-         *
-         * @param x the x coordinate
-         * @param y the y coordinate
-         */
-        public Coordinate(int x, int y) {
-            this.x = x;
-            this.y = y;
-        }
-
-        /**
-         * Compares this Coordinate to another Coordinate.
-         *
-         * @param o the coordinate to compare to
-         * @return the result of the comparison
-         */
-        @Override
-        public int compareTo(Coordinate o) {
-            Double playerDistanceA = Math.sqrt(Math.pow((x - playerX), 2) + Math.pow((y - playerY), 2));
-            Double playerDistanceB = Math.sqrt(Math.pow((o.x - playerX), 2) + Math.pow((o.y - playerY), 2));
-            return playerDistanceA.compareTo(playerDistanceB);
-        }
-
-        /**
-         * Tests this Coordinate with another object for equality.
-         *
-         * @param o the object to compare to
-         * @return true of the objects are equal, false if not
-         */
-        @Override
-        public boolean equals(Object o) {
-            if (o == null) return false;
-            if (getClass() != o.getClass()) return false;
-            final Coordinate other = (Coordinate) o;
-            return (this.x == other.x && this.y == other.y);
-        }
-
-        /**
-         * Gets a unique hash code for this coordinate.
-         *
-         * @return the hash code
-         */
-        @Override
-        public int hashCode() {
-            int hash = 17;
-            hash = hash * 31 + this.x;
-            hash = hash * 31 + this.y;
-            return hash;
-        }
-
-        /**
-         * Gets whether this Coordinate is in the same map tile as another.
-         *
-         * @param b the coordinate to compare with
-         * @return true if the coordinates are in the same map tile, false if not
-         */
-        public boolean inSameTile(Coordinate b) {
-            return (this.x / tileWidth == b.x / tileWidth && this.y / tileHeight == b.y / tileHeight);
-        }
-
-        /**
-         * Returns a string representation of this Coordinate.
-         *
-         * @return a string representation of this Coordinate
-         */
-        public String toString() {
-            return ("(" + Integer.toString(this.x) + ", " + Integer.toString(this.y) + ")");
-        }
-    }
-
-    /**
-     * Represents a node in the A* search tree.
-     */
-    class SearchNode {
-        /**
-         * The predecessor node in the search tree.
-         */
-        public SearchNode predecessor;
-        /**
-         * The iteration this node is a part of.
-         */
-        public int iteration;
-
-        /**
-         * Initialises this SearchNode.
-         *
-         * @param predecessor the predecessor node
-         * @param iteration   the iteration of this node
-         */
-        public SearchNode(SearchNode predecessor, int iteration) {
-            this.predecessor = predecessor;
-            this.iteration = iteration;
-        }
+    private void findPath(Mob mob) {
+        followPath(mob, (int) Math.floor((double) playerX / tileWidth), (int) Math.floor((double) playerY / tileHeight), PATHFINDING_NODE_LIMIT);
     }
 }
@@ -0,0 +1,554 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * An abstraction of a TileGraph for hierarchical pathfinding (HPA*). The map is split into square clusters of tiles,
+ * and each gap in the wall between two neighbouring clusters gets an entrance: a pair of nodes, one either side. The cost
+ * of getting between every pair of nodes in the same cluster is worked out once when the graph is built. Long searches
+ * then only have to cross this much smaller graph of entrances, and are turned back into tiles one short, cheap
+ * search at a time.
+ */
+public final class ClusterGraph {
+
+    /**
+     * How many tiles wide and high each cluster is.
+     */
+    public static final int CLUSTER_SIZE = 10;
+
+    /**
+     * Gaps in a cluster border at least this long get an entrance at each end instead of one in the middle.
+     */
+    private static final int WIDE_ENTRANCE = 6;
+
+    /**
+     * The workspace for each thread that searches.
+     */
+    private static final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+        @Override
+        protected Workspace initialValue() {
+            return new Workspace();
+        }
+    };
+
+    /**
+     * The tiles this graph abstracts.
+     */
+    private final TileGraph graph;
+
+    /**
+     * The size of the map in tiles.
+     */
+    private final int width, height;
+
+    /**
+     * How many clusters there are in each direction.
+     */
+    private final int clustersX, clustersY;
+
+    /**
+     * The tile index of each node.
+     */
+    private final int[] nodeTiles;
+
+    /**
+     * The nodes in each cluster, indexed by cluster x + cluster y * clustersX.
+     */
+    private final int[][] clusterNodes;
+
+    /**
+     * Where each node's edges start in the edge arrays. Node i has edges edgeStarts[i] to edgeStarts[i + 1] - 1.
+     */
+    private final int[] edgeStarts;
+
+    /**
+     * The node at the other end of each edge, and the cost of crossing it.
+     */
+    private final int[] edgeTargets, edgeCosts;
+
+    /**
+     * Builds the cluster graph for the specified tile graph, finding every entrance and the costs between them.
+     *
+     * @param graph the tile graph to abstract
+     */
+    public ClusterGraph(TileGraph graph) {
+        this.graph = graph;
+        this.width = graph.getWidth();
+        this.height = graph.getHeight();
+        this.clustersX = (width + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.clustersY = (height + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+
+        IntArray tiles = new IntArray();
+        IntIntMap tileNodes = new IntIntMap();
+        IntArray fromNodes = new IntArray(), toNodes = new IntArray(), costs = new IntArray();
+
+        // Find the entrances along the right and top border of each cluster.
+        for (int clusterY = 0; clusterY < clustersY; clusterY++) {
+            for (int clusterX = 0; clusterX < clustersX; clusterX++) {
+                int minX = clusterX * CLUSTER_SIZE, maxX = Math.min(width, minX + CLUSTER_SIZE) - 1;
+                int minY = clusterY * CLUSTER_SIZE, maxY = Math.min(height, minY + CLUSTER_SIZE) - 1;
+
+                if (clusterX + 1 < clustersX) {
+                    addEntrances(maxX, minY, 0, 1, maxY - minY + 1, 1, 0, tiles, tileNodes, fromNodes, toNodes, costs);
+                }
+                if (clusterY + 1 < clustersY) {
+                    addEntrances(minX, maxY, 1, 0, maxX - minX + 1, 0, 1, tiles, tileNodes, fromNodes, toNodes, costs);
+                }
+            }
+        }
+
+        nodeTiles = tiles.toArray();
+
+        // Group the nodes by cluster.
+        int[] clusterCounts = new int[clustersX * clustersY];
+        for (int i = 0; i < nodeTiles.length; i++) {
+            clusterCounts[clusterOf(nodeTiles[i])]++;
+        }
+
+        clusterNodes = new int[clustersX * clustersY][];
+        for (int i = 0; i < clusterNodes.length; i++) {
+            clusterNodes[i] = new int[clusterCounts[i]];
+            clusterCounts[i] = 0;
+        }
+
+        for (int i = 0; i < nodeTiles.length; i++) {
+            int cluster = clusterOf(nodeTiles[i]);
+            clusterNodes[cluster][clusterCounts[cluster]++] = i;
+        }
+
+        // Link every pair of nodes in the same cluster that can reach each other without leaving it.
+        Workspace workspace = new Workspace();
+        for (int cluster = 0; cluster < clusterNodes.length; cluster++) {
+            int[] nodes = clusterNodes[cluster];
+
+            for (int i = 0; i < nodes.length; i++) {
+                searchCluster(workspace, nodeTiles[nodes[i]], cluster);
+
+                for (int j = 0; j < nodes.length; j++) {
+                    int tile = nodeTiles[nodes[j]];
+
+                    if (i != j && workspace.tileStamps[tile] == workspace.tileStamp) {
+                        fromNodes.add(nodes[i]);
+                        toNodes.add(nodes[j]);
+                        costs.add(workspace.tileCosts[tile]);
+                    }
+                }
+            }
+        }
+
+        // Pack the edges by the node they start from.
+        edgeStarts = new int[nodeTiles.length + 1];
+        edgeTargets = new int[fromNodes.size];
+        edgeCosts = new int[fromNodes.size];
+
+        for (int i = 0; i < fromNodes.size; i++) {
+            edgeStarts[fromNodes.get(i) + 1]++;
+        }
+        for (int i = 0; i < nodeTiles.length; i++) {
+            edgeStarts[i + 1] += edgeStarts[i];
+        }
+
+        int[] filled = new int[nodeTiles.length];
+        for (int i = 0; i < fromNodes.size; i++) {
+            int edge = edgeStarts[fromNodes.get(i)] + filled[fromNodes.get(i)]++;
+            edgeTargets[edge] = toNodes.get(i);
+            edgeCosts[edge] = costs.get(i);
+        }
+    }
+
+    /**
+     * Finds the gaps along one cluster border and adds an entrance for each.
+     *
+     * @param startX    the x coordinate of the first tile on the near side of the border
+     * @param startY    the y coordinate of the first tile on the near side of the border
+     * @param alongX    the x step along the border
+     * @param alongY    the y step along the border
+     * @param length    how many tiles long the border is
+     * @param acrossX   the x step across the border
+     * @param acrossY   the y step across the border
+     * @param tiles     the tile of each node so far
+     * @param tileNodes the node on each tile so far
+     * @param fromNodes the start node of each edge so far
+     * @param toNodes   the end node of each edge so far
+     * @param costs     the cost of each edge so far
+     */
+    private void addEntrances(int startX, int startY, int alongX, int alongY, int length, int acrossX, int acrossY,
+                              IntArray tiles, IntIntMap tileNodes, IntArray fromNodes, IntArray toNodes, IntArray costs) {
+        int runStart = -1;
+
+        for (int i = 0; i <= length; i++) {
+            int x = startX + alongX * i, y = startY + alongY * i;
+            boolean open = i < length && graph.isPassable(x, y) && graph.isPassable(x + acrossX, y + acrossY);
+
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+
+                if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+                    addTransition(startX + alongX * runStart, startY + alongY * runStart, acrossX, acrossY, tiles, tileNodes, fromNodes, toNodes, costs);
+                    addTransition(startX + alongX * runEnd, startY + alongY * runEnd, acrossX, acrossY, tiles, tileNodes, fromNodes, toNodes, costs);
+                } else {
+                    int middle = (runStart + runEnd) / 2;
+                    addTransition(startX + alongX * middle, startY + alongY * middle, acrossX, acrossY, tiles, tileNodes, fromNodes, toNodes, costs);
+                }
+
+                runStart = -1;
+            }
+        }
+    }
+
+    /**
+     * Adds a pair of nodes either side of a cluster border, linked both ways.
+     *
+     * @param x         the x coordinate of the tile on the near side
+     * @param y         the y coordinate of the tile on the near side
+     * @param acrossX   the x step across the border
+     * @param acrossY   the y step across the border
+     * @param tiles     the tile of each node so far
+     * @param tileNodes the node on each tile so far
+     * @param fromNodes the start node of each edge so far
+     * @param toNodes   the end node of each edge so far
+     * @param costs     the cost of each edge so far
+     */
+    private void addTransition(int x, int y, int acrossX, int acrossY, IntArray tiles, IntIntMap tileNodes, IntArray fromNodes, IntArray toNodes, IntArray costs) {
+        int near = getNode(x + y * width, tiles, tileNodes);
+        int far = getNode(x + acrossX + (y + acrossY) * width, tiles, tileNodes);
+
+        fromNodes.add(near);
+        toNodes.add(far);
+        costs.add(TileGraph.STRAIGHT_COST);
+
+        fromNodes.add(far);
+        toNodes.add(near);
+        costs.add(TileGraph.STRAIGHT_COST);
+    }
+
+    /**
+     * Gets the node on a tile, adding one if there isn't one yet.
+     *
+     * @param tile      the tile index
+     * @param tiles     the tile of each node so far
+     * @param tileNodes the node on each tile so far
+     * @return the node index
+     */
+    private static int getNode(int tile, IntArray tiles, IntIntMap tileNodes) {
+        int node = tileNodes.get(tile, -1);
+
+        if (node < 0) {
+            node = tiles.size;
+            tiles.add(tile);
+            tileNodes.put(tile, node);
+        }
+
+        return node;
+    }
+
+    /**
+     * Gets how many entrance nodes there are.
+     *
+     * @return the number of nodes in this graph
+     */
+    public int getNodeCount() {
+        return nodeTiles.length;
+    }
+
+    /**
+     * Gets the tile graph this graph abstracts.
+     *
+     * @return the tile graph
+     */
+    public TileGraph getTileGraph() {
+        return graph;
+    }
+
+    /**
+     * Finds a path between two tiles by searching the graph of entrances and then filling in the tiles between each
+     * pair of entrances on the way. Tiles in the same cluster are searched for directly first.
+     *
+     * @param startX the x coordinate of the start tile
+     * @param startY the y coordinate of the start tile
+     * @param goalX  the x coordinate of the goal tile
+     * @param goalY  the y coordinate of the goal tile
+     * @param path   the array to clear and fill with the tile indices on the path, from the first step after the start
+     *               to the goal. Empty if the start is the goal or there is no path.
+     * @return true if a path to the goal was found
+     */
+    public boolean findPath(int startX, int startY, int goalX, int goalY, IntArray path) {
+        path.clear();
+
+        if (!graph.inBounds(startX, startY) || !graph.inBounds(goalX, goalY)) {
+            return false;
+        }
+
+        int start = startX + startY * width, goal = goalX + goalY * width;
+        int startCluster = clusterOf(start), goalCluster = clusterOf(goal);
+
+        if (startCluster == goalCluster && TilePathfinder.findPath(graph, startX, startY, goalX, goalY, CLUSTER_SIZE * CLUSTER_SIZE, path)) {
+            return true;
+        }
+
+        Workspace workspace = workspaces.get();
+        workspace.begin(width * height, nodeTiles.length);
+
+        // Costs from the goal to the nodes in its cluster (moves are symmetric, so these are also the costs to the goal).
+        searchCluster(workspace, goal, goalCluster);
+        int[] goalNodes = clusterNodes[goalCluster];
+        for (int i = 0; i < goalNodes.length; i++) {
+            int tile = nodeTiles[goalNodes[i]];
+            workspace.goalCosts[goalNodes[i]] = workspace.tileStamps[tile] == workspace.tileStamp ? workspace.tileCosts[tile] : -1;
+        }
+
+        // Start the search from every node the start can reach in its own cluster.
+        searchCluster(workspace, start, startCluster);
+        int[] startNodes = clusterNodes[startCluster];
+        int virtualGoal = nodeTiles.length;
+
+        for (int i = 0; i < startNodes.length; i++) {
+            int tile = nodeTiles[startNodes[i]];
+
+            if (workspace.tileStamps[tile] == workspace.tileStamp) {
+                open(workspace, startNodes[i], workspace.tileCosts[tile], -1, goalX, goalY);
+            }
+        }
+
+        IntPriorityQueue queue = workspace.open;
+        int[] nodeCosts = workspace.nodeCosts;
+        boolean found = false;
+
+        while (!queue.isEmpty()) {
+            int priority = queue.peekPriority();
+            int node = queue.poll();
+
+            if (node == virtualGoal) {
+                found = true;
+                break;
+            }
+
+            int tile = nodeTiles[node];
+            if (priority > nodeCosts[node] + estimate(tile, goalX, goalY)) {
+                continue;
+            }
+
+            // Nodes in the goal's cluster link to the goal itself.
+            if (clusterOf(tile) == goalCluster && workspace.goalCosts[node] >= 0) {
+                int cost = nodeCosts[node] + workspace.goalCosts[node];
+
+                if (workspace.nodeStamps[virtualGoal] != workspace.nodeStamp || cost < nodeCosts[virtualGoal]) {
+                    workspace.nodeStamps[virtualGoal] = workspace.nodeStamp;
+                    nodeCosts[virtualGoal] = cost;
+                    workspace.nodeParents[virtualGoal] = node;
+                    queue.add(virtualGoal, cost);
+                }
+            }
+
+            for (int edge = edgeStarts[node]; edge < edgeStarts[node + 1]; edge++) {
+                open(workspace, edgeTargets[edge], nodeCosts[node] + edgeCosts[edge], node, goalX, goalY);
+            }
+        }
+
+        if (!found) {
+            return false;
+        }
+
+        // Collect the entrances on the way, goal end first.
+        IntArray waypoints = workspace.waypoints;
+        waypoints.clear();
+        waypoints.add(goal);
+        for (int node = workspace.nodeParents[virtualGoal]; node >= 0; node = workspace.nodeParents[node]) {
+            waypoints.add(nodeTiles[node]);
+        }
+        waypoints.add(start);
+
+        // Fill in the tiles between each pair of waypoints.
+        IntArray segment = workspace.segment;
+        for (int i = waypoints.size - 1; i > 0; i--) {
+            int from = waypoints.get(i), to = waypoints.get(i - 1);
+
+            if (from == to) {
+                continue;
+            }
+
+            if (!TilePathfinder.findPath(graph, from % width, from / width, to % width, to / width, 0, segment)) {
+                path.clear();
+                return false;
+            }
+
+            path.addAll(segment);
+        }
+
+        return true;
+    }
+
+    /**
+     * Records a route to a node if it is better than the best known one, and adds the node to the open list.
+     *
+     * @param workspace the workspace of the current search
+     * @param node      the node reached
+     * @param cost      the cost of reaching it
+     * @param parent    the node it was reached from, or -1 if from the start
+     * @param goalX     the x coordinate of the goal tile
+     * @param goalY     the y coordinate of the goal tile
+     */
+    private void open(Workspace workspace, int node, int cost, int parent, int goalX, int goalY) {
+        if (workspace.nodeStamps[node] == workspace.nodeStamp && workspace.nodeCosts[node] <= cost) {
+            return;
+        }
+
+        workspace.nodeStamps[node] = workspace.nodeStamp;
+        workspace.nodeCosts[node] = cost;
+        workspace.nodeParents[node] = parent;
+        workspace.open.add(node, cost + estimate(nodeTiles[node], goalX, goalY));
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a tile without leaving its cluster, leaving the cost of reaching each tile in the
+     * workspace's tile arrays.
+     *
+     * @param workspace the workspace to use
+     * @param from      the tile to search from
+     * @param cluster   the cluster to stay inside
+     */
+    private void searchCluster(Workspace workspace, int from, int cluster) {
+        int minX = (cluster % clustersX) * CLUSTER_SIZE, minY = (cluster / clustersX) * CLUSTER_SIZE;
+        int maxX = Math.min(width, minX + CLUSTER_SIZE) - 1, maxY = Math.min(height, minY + CLUSTER_SIZE) - 1;
+        workspace.growTiles(width * height);
+
+        int[] tileCosts = workspace.tileCosts, tileStamps = workspace.tileStamps;
+        int stamp = ++workspace.tileStamp;
+        IntPriorityQueue queue = workspace.clusterOpen;
+        queue.clear();
+
+        tileStamps[from] = stamp;
+        tileCosts[from] = 0;
+        queue.add(from, 0);
+
+        while (!queue.isEmpty()) {
+            int cost = queue.peekPriority();
+            int tile = queue.poll();
+
+            if (cost > tileCosts[tile]) {
+                continue;
+            }
+
+            int tileX = tile % width, tileY = tile / width;
+
+            for (int i = 0; i < 8; i++) {
+                int neighbourX = tileX + TileGraph.OFFSETS_X[i], neighbourY = tileY + TileGraph.OFFSETS_Y[i];
+
+                if (neighbourX < minX || neighbourX > maxX || neighbourY < minY || neighbourY > maxY || !graph.canMove(tileX, tileY, i)) {
+                    continue;
+                }
+
+                int neighbour = neighbourX + neighbourY * width;
+                int neighbourCost = cost + TileGraph.moveCost(i);
+
+                if (tileStamps[neighbour] == stamp && tileCosts[neighbour] <= neighbourCost) {
+                    continue;
+                }
+
+                tileStamps[neighbour] = stamp;
+                tileCosts[neighbour] = neighbourCost;
+                queue.add(neighbour, neighbourCost);
+            }
+        }
+    }
+
+    /**
+     * Estimates the cost from a tile to the goal.
+     *
+     * @param tile  the tile index
+     * @param goalX the x coordinate of the goal tile
+     * @param goalY the y coordinate of the goal tile
+     * @return the octile distance between them
+     */
+    private int estimate(int tile, int goalX, int goalY) {
+        return TileGraph.estimateCost(tile % width, tile / width, goalX, goalY);
+    }
+
+    /**
+     * Gets the cluster containing a tile.
+     *
+     * @param tile the tile index
+     * @return the cluster index
+     */
+    private int clusterOf(int tile) {
+        return (tile % width) / CLUSTER_SIZE + ((tile / width) / CLUSTER_SIZE) * clustersX;
+    }
+
+    /**
+     * The arrays used by one thread's searches.
+     */
+    private static final class Workspace {
+
+        /**
+         * Costs of reaching tiles in the last cluster search, valid only where the matching stamp is the current one.
+         */
+        int[] tileCosts = new int[0], tileStamps = new int[0];
+
+        /**
+         * Incremented at the start of every cluster search.
+         */
+        int tileStamp = 0;
+
+        /**
+         * Costs, parents and stamps for the nodes in the entrance search, with one extra slot for the goal.
+         */
+        int[] nodeCosts = new int[0], nodeParents = new int[0], nodeStamps = new int[0];
+
+        /**
+         * The cost from each node in the goal's cluster to the goal, or -1 if it can't reach it.
+         */
+        int[] goalCosts = new int[0];
+
+        /**
+         * Incremented at the start of every entrance search.
+         */
+        int nodeStamp = 0;
+
+        /**
+         * The open lists for entrance and cluster searches.
+         */
+        final IntPriorityQueue open = new IntPriorityQueue(64), clusterOpen = new IntPriorityQueue(64);
+
+        /**
+         * The tiles on the way found by the entrance search, and each section of path filled in between them.
+         */
+        final IntArray waypoints = new IntArray(), segment = new IntArray();
+
+        /**
+         * Gets this Workspace ready for a new search, growing it if necessary.
+         *
+         * @param tiles how many tiles the map has
+         * @param nodes how many nodes the entrance graph has
+         */
+        void begin(int tiles, int nodes) {
+            growTiles(tiles);
+
+            if (nodeCosts.length < nodes + 1) {
+                nodeCosts = new int[nodes + 1];
+                nodeParents = new int[nodes + 1];
+                nodeStamps = new int[nodes + 1];
+                goalCosts = new int[nodes + 1];
+                nodeStamp = 0;
+            }
+
+            nodeStamp++;
+            open.clear();
+        }
+
+        /**
+         * Grows the tile arrays if they are too small for a map.
+         *
+         * @param tiles how many tiles the map has
+         */
+        void growTiles(int tiles) {
+            if (tileCosts.length < tiles) {
+                tileCosts = new int[tiles];
+                tileStamps = new int[tiles];
+                tileStamp = 0;
+            }
+        }
+    }
+}
@@ -27,4 +27,14 @@ public class DummyAI extends AI {
     public void update(Mob mob, float delta) {
     }
 
+    /**
+     * Leaves the mob where it is, however far it is from the player.
+     *
+     * @param mob     pointer to the Mob using this AI
+     * @param elapsed how long since the mob last moved
+     */
+    @Override
+    public void updateDistant(Mob mob, float elapsed) {
+    }
+
 }
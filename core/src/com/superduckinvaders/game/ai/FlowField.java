@@ -0,0 +1,157 @@
+package com.superduckinvaders.game.ai;
+
+/**
+ * A field of directions over the tile grid leading towards a single target tile (usually the player's), shared by every
+ * mob chasing that target. The field is built with Dijkstra's algorithm outwards from the target, up to a maximum
+ * distance, and is only rebuilt when the target moves to a different tile and someone asks for a direction.
+ */
+public final class FlowField {
+
+    /**
+     * The tiles the field can lead through.
+     */
+    private final TileGraph graph;
+
+    /**
+     * The width of the map in tiles.
+     */
+    private final int width;
+
+    /**
+     * The furthest cost from the target that the field covers.
+     */
+    private final int maxCost;
+
+    /**
+     * The cost of reaching the target from each tile, valid only where the matching stamp is the current one.
+     */
+    private final int[] costs;
+
+    /**
+     * The next tile towards the target from each tile, valid only where the matching stamp is the current one.
+     */
+    private final int[] nextTiles;
+
+    /**
+     * Which build last reached each tile, so the arrays don't need clearing between builds.
+     */
+    private final int[] stamps;
+
+    /**
+     * Incremented every time the field is rebuilt.
+     */
+    private int stamp = 0;
+
+    /**
+     * The open list used while building.
+     */
+    private final IntPriorityQueue open;
+
+    /**
+     * The tile the field currently leads to, and the tile it was last built for (-1 if never built).
+     */
+    private int targetTile = -1, builtTile = -1;
+
+    /**
+     * Initialises this FlowField.
+     *
+     * @param graph  the tiles the things following the field can stand on
+     * @param radius how far from the target the field reaches, in tiles
+     */
+    public FlowField(TileGraph graph, int radius) {
+        this.graph = graph;
+        this.width = graph.getWidth();
+        this.maxCost = radius * TileGraph.STRAIGHT_COST;
+
+        costs = new int[width * graph.getHeight()];
+        nextTiles = new int[width * graph.getHeight()];
+        stamps = new int[width * graph.getHeight()];
+        open = new IntPriorityQueue(radius * radius * 4);
+    }
+
+    /**
+     * Sets the tile the field should lead to. The field isn't rebuilt until a direction is next asked for.
+     *
+     * @param tileX the x coordinate of the target tile
+     * @param tileY the y coordinate of the target tile
+     */
+    public void setTarget(int tileX, int tileY) {
+        targetTile = graph.inBounds(tileX, tileY) ? tileX + tileY * width : -1;
+    }
+
+    /**
+     * Gets the next tile to move to from the specified tile to get closer to the target.
+     *
+     * @param tileX the x coordinate of the tile to move from
+     * @param tileY the y coordinate of the tile to move from
+     * @return the index (x + y * width) of the next tile, the target itself if already there, or -1 if the tile is out
+     * of the field's reach
+     */
+    public int getNextTile(int tileX, int tileY) {
+        if (targetTile < 0 || !graph.inBounds(tileX, tileY)) {
+            return -1;
+        }
+
+        if (builtTile != targetTile) {
+            build();
+        }
+
+        int tile = tileX + tileY * width;
+        return stamps[tile] == stamp ? nextTiles[tile] : -1;
+    }
+
+    /**
+     * Gets the width of the map in tiles, used to turn tile indices back into coordinates.
+     *
+     * @return the width of the map this field covers
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm outwards from the target tile, recording for each tile reached the neighbour it was
+     * reached from. Moves between tiles are symmetric in the graph, so this is also the way back to the target.
+     */
+    private void build() {
+        stamp++;
+        builtTile = targetTile;
+        open.clear();
+
+        // The target is always reachable from itself, even if something is standing against a wall.
+        stamps[targetTile] = stamp;
+        costs[targetTile] = 0;
+        nextTiles[targetTile] = targetTile;
+        open.add(targetTile, 0);
+
+        while (!open.isEmpty()) {
+            int cost = open.peekPriority();
+            int tile = open.poll();
+
+            // Skip stale entries left behind when a tile's cost was lowered.
+            if (cost > costs[tile]) {
+                continue;
+            }
+
+            int tileX = tile % width, tileY = tile / width;
+
+            for (int i = 0; i < 8; i++) {
+                if (!graph.canMove(tileX, tileY, i)) {
+                    continue;
+                }
+
+                int neighbour = tileX + TileGraph.OFFSETS_X[i] + (tileY + TileGraph.OFFSETS_Y[i]) * width;
+                int neighbourCost = cost + TileGraph.moveCost(i);
+
+                if (neighbourCost > maxCost || (stamps[neighbour] == stamp && costs[neighbour] <= neighbourCost)) {
+                    continue;
+                }
+
+                stamps[neighbour] = stamp;
+                costs[neighbour] = neighbourCost;
+                nextTiles[neighbour] = tile;
+                open.add(neighbour, neighbourCost);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.superduckinvaders.game.ai;
+
+/**
+ * A binary min-heap of int values ordered by int priorities, stored in flat arrays so that searches over tile indices
+ * don't box anything. Values aren't unique: searches push a value again when they find a better priority for it and
+ * skip the stale copies when they come out.
+ */
+public final class IntPriorityQueue {
+
+    /**
+     * The values in the heap, in heap order.
+     */
+    private int[] values;
+
+    /**
+     * The priority of each value, in the same order.
+     */
+    private int[] priorities;
+
+    /**
+     * How many values are in the heap.
+     */
+    private int size = 0;
+
+    /**
+     * Initialises this IntPriorityQueue.
+     *
+     * @param capacity how many values to make room for initially
+     */
+    public IntPriorityQueue(int capacity) {
+        values = new int[Math.max(1, capacity)];
+        priorities = new int[values.length];
+    }
+
+    /**
+     * Adds a value to this IntPriorityQueue, growing it if necessary.
+     *
+     * @param value    the value to add
+     * @param priority the priority of the value (lower comes out first)
+     */
+    public void add(int value, int priority) {
+        if (size == values.length) {
+            int[] grownValues = new int[size * 2], grownPriorities = new int[size * 2];
+            System.arraycopy(values, 0, grownValues, 0, size);
+            System.arraycopy(priorities, 0, grownPriorities, 0, size);
+            values = grownValues;
+            priorities = grownPriorities;
+        }
+
+        // Sift the new value up from the bottom of the heap.
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+
+            if (priorities[parent] <= priority) {
+                break;
+            }
+
+            values[index] = values[parent];
+            priorities[index] = priorities[parent];
+            index = parent;
+        }
+
+        values[index] = value;
+        priorities[index] = priority;
+    }
+
+    /**
+     * Gets the priority of the value that will be removed next.
+     *
+     * @return the lowest priority in this IntPriorityQueue
+     */
+    public int peekPriority() {
+        return priorities[0];
+    }
+
+    /**
+     * Removes the value with the lowest priority.
+     *
+     * @return the value removed
+     */
+    public int poll() {
+        int first = values[0];
+        int value = values[--size], priority = priorities[size];
+
+        // Sift the last value down from the top of the heap.
+        int index = 0;
+        while (index * 2 + 1 < size) {
+            int child = index * 2 + 1;
+
+            if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                child++;
+            }
+
+            if (priority <= priorities[child]) {
+                break;
+            }
+
+            values[index] = values[child];
+            priorities[index] = priorities[child];
+            index = child;
+        }
+
+        values[index] = value;
+        priorities[index] = priority;
+        return first;
+    }
+
+    /**
+     * Gets whether this IntPriorityQueue is empty.
+     *
+     * @return true if there are no values left
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values from this IntPriorityQueue, keeping its capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
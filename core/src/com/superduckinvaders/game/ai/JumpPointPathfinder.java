@@ -0,0 +1,306 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Jump Point Search over a TileGraph. On open ground plain A* adds every one of the many equally good routes to its open
+ * list; this search instead runs in straight lines and along diagonals until it reaches a tile where the route could
+ * turn (a jump point), and only adds those. Follows the same no-corner-cutting rule as the graph, so it finds paths
+ * of the same cost as TilePathfinder. Like TilePathfinder, all search state lives in a workspace kept for each thread.
+ */
+public final class JumpPointPathfinder {
+
+    /**
+     * The workspace for each thread that searches.
+     */
+    private static final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+        @Override
+        protected Workspace initialValue() {
+            return new Workspace();
+        }
+    };
+
+    /**
+     * Not instantiable, all searches go through findPath.
+     */
+    private JumpPointPathfinder() {
+    }
+
+    /**
+     * Finds a path between two tiles. If the goal can't be reached within the expansion limit, finds a path to the
+     * jump point that was estimated to be closest to the goal instead. The path is filled in tile by tile between jump
+     * points, so it can be followed exactly like one from TilePathfinder.
+     *
+     * @param graph    the graph to search
+     * @param startX   the x coordinate of the start tile
+     * @param startY   the y coordinate of the start tile
+     * @param goalX    the x coordinate of the goal tile
+     * @param goalY    the y coordinate of the goal tile
+     * @param maxNodes the most jump points to expand before giving up, or 0 for no limit
+     * @param path     the array to clear and fill with the tile indices (x + y * width) on the path, from the first
+     *                 step after the start to the end. Empty if the start is the goal or nothing better was found.
+     * @return true if the path leads to the goal, false if it only leads closer to it
+     */
+    public static boolean findPath(TileGraph graph, int startX, int startY, int goalX, int goalY, int maxNodes, IntArray path) {
+        path.clear();
+
+        Workspace workspace = workspaces.get();
+        workspace.expanded = 0;
+
+        if (!graph.inBounds(startX, startY) || !graph.inBounds(goalX, goalY)) {
+            return false;
+        }
+
+        workspace.begin(graph.getWidth() * graph.getHeight());
+
+        int width = graph.getWidth();
+        int start = startX + startY * width, goal = goalX + goalY * width;
+        int[] costs = workspace.costs, parents = workspace.parents, stamps = workspace.stamps;
+        int stamp = workspace.stamp;
+        IntPriorityQueue open = workspace.open;
+
+        stamps[start] = stamp;
+        costs[start] = 0;
+        parents[start] = -1;
+        open.add(start, TileGraph.estimateCost(startX, startY, goalX, goalY));
+
+        int closest = start, closestEstimate = TileGraph.estimateCost(startX, startY, goalX, goalY);
+
+        while (!open.isEmpty()) {
+            int priority = open.peekPriority();
+            int tile = open.poll();
+            int tileX = tile % width, tileY = tile / width;
+
+            // Skip stale entries left behind when a tile's cost was lowered.
+            if (priority > costs[tile] + TileGraph.estimateCost(tileX, tileY, goalX, goalY)) {
+                continue;
+            }
+
+            if (tile == goal) {
+                closest = goal;
+                break;
+            }
+
+            int estimate = priority - costs[tile];
+            if (estimate < closestEstimate) {
+                closest = tile;
+                closestEstimate = estimate;
+            }
+
+            if (maxNodes > 0 && workspace.expanded >= maxNodes) {
+                break;
+            }
+            workspace.expanded++;
+
+            for (int i = 0; i < 8; i++) {
+                int dirX = TileGraph.OFFSETS_X[i], dirY = TileGraph.OFFSETS_Y[i];
+
+                if (!isNatural(graph, tileX, tileY, parents[tile], width, dirX, dirY) || !graph.canMove(tileX, tileY, i)) {
+                    continue;
+                }
+
+                int jumpPoint = jump(graph, tileX, tileY, dirX, dirY, goalX, goalY);
+                if (jumpPoint < 0) {
+                    continue;
+                }
+
+                int jumpX = jumpPoint % width, jumpY = jumpPoint / width;
+                int cost = costs[tile] + TileGraph.estimateCost(tileX, tileY, jumpX, jumpY);
+
+                if (stamps[jumpPoint] == stamp && costs[jumpPoint] <= cost) {
+                    continue;
+                }
+
+                stamps[jumpPoint] = stamp;
+                costs[jumpPoint] = cost;
+                parents[jumpPoint] = tile;
+                open.add(jumpPoint, cost + TileGraph.estimateCost(jumpX, jumpY, goalX, goalY));
+            }
+        }
+
+        // Walk back from the end to the start, filling in the straight or diagonal line to each jump point's parent.
+        for (int tile = closest; tile != start; tile = parents[tile]) {
+            int parent = parents[tile];
+            int stepX = Integer.signum(parent % width - tile % width), stepY = Integer.signum(parent / width - tile / width);
+
+            for (int between = tile; between != parent; between += stepX + stepY * width) {
+                path.add(between);
+            }
+        }
+        path.reverse();
+
+        return closest == goal;
+    }
+
+    /**
+     * Gets how many jump points the last search on this thread expanded.
+     *
+     * @return the number of expanded jump points
+     */
+    public static int getExpandedCount() {
+        return workspaces.get().expanded;
+    }
+
+    /**
+     * Gets whether a direction is worth searching from a jump point, given the direction the search arrived from. Only
+     * the directions an optimal route could carry on in are searched: straight on, and the ways round any wall the
+     * search has just passed. The start, which has no parent, searches every direction.
+     *
+     * @param graph  the graph being searched
+     * @param tileX  the x coordinate of the jump point
+     * @param tileY  the y coordinate of the jump point
+     * @param parent the tile index of the jump point's parent, or -1 if it is the start
+     * @param width  the width of the graph
+     * @param dirX   the x step of the direction
+     * @param dirY   the y step of the direction
+     * @return true if the direction should be searched
+     */
+    private static boolean isNatural(TileGraph graph, int tileX, int tileY, int parent, int width, int dirX, int dirY) {
+        if (parent < 0) {
+            return true;
+        }
+
+        int fromX = Integer.signum(tileX - parent % width), fromY = Integer.signum(tileY - parent / width);
+
+        if (fromX != 0 && fromY != 0) {
+            // Arrived diagonally: carry on diagonally, or along either of its parts.
+            return (dirX == fromX && dirY == fromY) || (dirX == fromX && dirY == 0) || (dirX == 0 && dirY == fromY);
+        }
+
+        if (fromX != 0) {
+            // Arrived horizontally: carry on, or turn up or down (straight or forwards diagonally).
+            return dirX == fromX || (dirX == 0 && dirY != 0);
+        }
+
+        return dirY == fromY || (dirY == 0 && dirX != 0);
+    }
+
+    /**
+     * Moves from a tile in a direction until reaching a jump point: the goal, or a tile where an optimal route could
+     * turn because of a wall beside it. Diagonal moves also stop where a straight search from the tile would find a jump
+     * point.
+     *
+     * @param graph the graph being searched
+     * @param tileX the x coordinate of the tile to move from
+     * @param tileY the y coordinate of the tile to move from
+     * @param dirX  the x step of the direction
+     * @param dirY  the y step of the direction
+     * @param goalX the x coordinate of the goal tile
+     * @param goalY the y coordinate of the goal tile
+     * @return the tile index of the jump point, or -1 if the line runs into a wall first
+     */
+    private static int jump(TileGraph graph, int tileX, int tileY, int dirX, int dirY, int goalX, int goalY) {
+        if (dirX == 0 || dirY == 0) {
+            return jumpStraight(graph, tileX, tileY, dirX, dirY, goalX, goalY);
+        }
+
+        int x = tileX, y = tileY;
+
+        while (true) {
+            x += dirX;
+            y += dirY;
+
+            if (x == goalX && y == goalY) {
+                return x + y * graph.getWidth();
+            }
+
+            if (jumpStraight(graph, x, y, dirX, 0, goalX, goalY) >= 0 || jumpStraight(graph, x, y, 0, dirY, goalX, goalY) >= 0) {
+                return x + y * graph.getWidth();
+            }
+
+            // The next diagonal step mustn't cut a corner.
+            if (!graph.isPassable(x + dirX, y + dirY) || !graph.isPassable(x + dirX, y) || !graph.isPassable(x, y + dirY)) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Moves from a tile in a straight line until reaching the goal, a wall, or a tile with a wall just behind it to one
+     * side and an opening beside it (a route coming this way might need to turn there).
+     *
+     * @param graph the graph being searched
+     * @param tileX the x coordinate of the tile to move from
+     * @param tileY the y coordinate of the tile to move from
+     * @param dirX  the x step of the direction
+     * @param dirY  the y step of the direction
+     * @param goalX the x coordinate of the goal tile
+     * @param goalY the y coordinate of the goal tile
+     * @return the tile index of the jump point, or -1 if the line runs into a wall first
+     */
+    private static int jumpStraight(TileGraph graph, int tileX, int tileY, int dirX, int dirY, int goalX, int goalY) {
+        int x = tileX, y = tileY;
+
+        while (graph.isPassable(x + dirX, y + dirY)) {
+            x += dirX;
+            y += dirY;
+
+            if (x == goalX && y == goalY) {
+                return x + y * graph.getWidth();
+            }
+
+            // The sideways axis: (dirY, dirX) is perpendicular to (dirX, dirY) for straight moves.
+            int sideX = dirY, sideY = dirX;
+
+            if ((graph.isPassable(x + sideX, y + sideY) && !graph.isPassable(x - dirX + sideX, y - dirY + sideY))
+                    || (graph.isPassable(x - sideX, y - sideY) && !graph.isPassable(x - dirX - sideX, y - dirY - sideY))) {
+                return x + y * graph.getWidth();
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * The arrays used by one thread's searches.
+     */
+    private static final class Workspace {
+
+        /**
+         * The cost of the best known route to each jump point, valid only where the matching stamp is the current one.
+         */
+        int[] costs = new int[0];
+
+        /**
+         * The jump point each jump point was reached from, valid only where the matching stamp is the current one.
+         */
+        int[] parents = new int[0];
+
+        /**
+         * Which search last reached each tile, so the arrays don't need clearing between searches.
+         */
+        int[] stamps = new int[0];
+
+        /**
+         * Incremented at the start of every search.
+         */
+        int stamp = 0;
+
+        /**
+         * How many jump points the last search expanded.
+         */
+        int expanded = 0;
+
+        /**
+         * The open list.
+         */
+        final IntPriorityQueue open = new IntPriorityQueue(64);
+
+        /**
+         * Gets this Workspace ready for a new search, growing it if necessary.
+         *
+         * @param tiles how many tiles the graph being searched has
+         */
+        void begin(int tiles) {
+            if (costs.length < tiles) {
+                costs = new int[tiles];
+                parents = new int[tiles];
+                stamps = new int[tiles];
+                stamp = 0;
+            }
+
+            stamp++;
+            open.clear();
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Queues path searches from every AI in a Round and runs them off the render thread on a small pool of workers shared by
+ * every Round. Finished paths are handed back through a lock-free queue and given to the AIs that asked at the start of
+ * the next update, so listeners are only ever called on the render thread. The graphs searched never change once built,
+ * so workers can read them without locking. On a machine with a single core, or with the workers turned off, searches
+ * are run during update instead, as many as fit in a time budget each frame, so that a wave of mobs deciding to search
+ * at once can't cause a hitch. Requests between the same tiles on the same graph made while one
+ * is already waiting are merged into it, and everyone who asked is told the result. Searches for far away goals are
+ * answered from a cluster graph where one has been added for the tile graph.
+ */
+public final class PathBroker {
+
+    /**
+     * How many tiles apart (in either direction) the start and goal must be before the cluster graph is searched
+     * instead of the tiles.
+     */
+    public static final int LONG_RANGE = ClusterGraph.CLUSTER_SIZE;
+
+    /**
+     * How many worker threads search for paths, leaving a core free for the render thread.
+     */
+    public static final int WORKER_COUNT = Math.min(2, Runtime.getRuntime().availableProcessors() - 1);
+
+    /**
+     * The worker pool shared by every PathBroker, created the first time it is needed.
+     */
+    private static ExecutorService workers;
+
+    /**
+     * Whether searches are run by the workers instead of during update.
+     */
+    private boolean async = WORKER_COUNT > 0;
+
+    /**
+     * Searches the workers have finished, waiting to be handed out on the render thread.
+     */
+    private final ConcurrentLinkedQueue<Request> finished = new ConcurrentLinkedQueue<Request>();
+
+    /**
+     * How long to spend searching each frame, in nanoseconds.
+     */
+    private long budget;
+
+    /**
+     * Requests waiting to be searched, oldest first, starting from the head index.
+     */
+    private final Array<Request> queue = new Array<Request>();
+
+    /**
+     * The index in the queue of the oldest request still waiting.
+     */
+    private int head = 0;
+
+    /**
+     * The waiting requests for each graph, keyed by start and goal tile, used to merge duplicates.
+     */
+    private final ObjectMap<TileGraph, LongMap<Request>> waiting = new ObjectMap<TileGraph, LongMap<Request>>();
+
+    /**
+     * The cluster graphs to use for long searches over each tile graph.
+     */
+    private final ObjectMap<TileGraph, ClusterGraph> clusterGraphs = new ObjectMap<TileGraph, ClusterGraph>();
+
+    /**
+     * Finished requests kept to be reused.
+     */
+    private final Array<Request> freeRequests = new Array<Request>(false, 16);
+
+    /**
+     * Initialises this PathBroker.
+     *
+     * @param budgetMicros how long to spend searching each frame, in microseconds
+     */
+    public PathBroker(int budgetMicros) {
+        setBudget(budgetMicros);
+    }
+
+    /**
+     * Sets how long to spend searching each frame when searches aren't run by the workers.
+     *
+     * @param budgetMicros the budget in microseconds
+     */
+    public void setBudget(int budgetMicros) {
+        budget = budgetMicros * 1000L;
+    }
+
+    /**
+     * Sets whether searches are run by the worker pool. Has no effect on a machine with a single core, where there are
+     * no workers. Searches already handed to the workers are still handed out when they finish.
+     *
+     * @param async true to run searches on the workers, false to run them during update
+     */
+    public void setAsync(boolean async) {
+        this.async = async && WORKER_COUNT > 0;
+    }
+
+    /**
+     * Gets the worker pool, starting it if it hasn't been yet. The workers are daemon threads, so they never keep the
+     * game running once it has been closed.
+     *
+     * @return the worker pool
+     */
+    private static synchronized ExecutorService getWorkers() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(WORKER_COUNT, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Pathfinding");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return workers;
+    }
+
+    /**
+     * Adds a cluster graph to search for long paths over the tile graph it abstracts.
+     *
+     * @param clusterGraph the cluster graph
+     */
+    public void addClusterGraph(ClusterGraph clusterGraph) {
+        clusterGraphs.put(clusterGraph.getTileGraph(), clusterGraph);
+    }
+
+    /**
+     * Gets how many requests are waiting to be searched.
+     *
+     * @return the number of waiting requests, after merging duplicates
+     */
+    public int getWaitingCount() {
+        return queue.size - head;
+    }
+
+    /**
+     * Asks for a path to be found with plain A*. The listener is told the result during a later call to update.
+     *
+     * @param graph    the graph to search
+     * @param startX   the x coordinate of the start tile
+     * @param startY   the y coordinate of the start tile
+     * @param goalX    the x coordinate of the goal tile
+     * @param goalY    the y coordinate of the goal tile
+     * @param maxNodes the most tiles to expand before giving up, or 0 for no limit
+     * @param listener who to tell the result
+     */
+    public void request(TileGraph graph, int startX, int startY, int goalX, int goalY, int maxNodes, PathListener listener) {
+        request(graph, PathStrategy.A_STAR, startX, startY, goalX, goalY, maxNodes, listener);
+    }
+
+    /**
+     * Asks for a path to be found. The listener is told the result during a later call to update. If the same path is
+     * already waiting with a different strategy it is merged anyway, since both strategies find paths of the same cost.
+     *
+     * @param graph    the graph to search
+     * @param strategy how to search the tiles
+     * @param startX   the x coordinate of the start tile
+     * @param startY   the y coordinate of the start tile
+     * @param goalX    the x coordinate of the goal tile
+     * @param goalY    the y coordinate of the goal tile
+     * @param maxNodes the most nodes to expand before giving up, or 0 for no limit
+     * @param listener who to tell the result
+     */
+    public void request(TileGraph graph, PathStrategy strategy, int startX, int startY, int goalX, int goalY, int maxNodes, PathListener listener) {
+        if (!graph.inBounds(startX, startY) || !graph.inBounds(goalX, goalY)) {
+            return;
+        }
+
+        LongMap<Request> graphRequests = waiting.get(graph);
+        if (graphRequests == null) {
+            graphRequests = new LongMap<Request>();
+            waiting.put(graph, graphRequests);
+        }
+
+        long key = ((long) (startX + startY * graph.getWidth()) << 32) | (goalX + goalY * graph.getWidth());
+        Request request = graphRequests.get(key);
+
+        if (request == null) {
+            request = freeRequests.size > 0 ? freeRequests.pop() : new Request();
+            request.graph = graph;
+            request.strategy = strategy;
+            request.key = key;
+            request.startX = startX;
+            request.startY = startY;
+            request.goalX = goalX;
+            request.goalY = goalY;
+            request.maxNodes = maxNodes;
+
+            graphRequests.put(key, request);
+            queue.add(request);
+        } else if (request.maxNodes != 0) {
+            // Merged requests search as far as the most patient of them wants.
+            request.maxNodes = maxNodes == 0 ? 0 : Math.max(request.maxNodes, maxNodes);
+        }
+
+        if (!request.listeners.contains(listener, true)) {
+            request.listeners.add(listener);
+        }
+    }
+
+    /**
+     * Hands out the paths the workers have finished since the last update, then either gives every waiting search to
+     * the workers or, if they aren't being used, runs waiting searches until the budget for this frame is used up. At
+     * least one search is always run, so requests are never starved however small the budget is.
+     */
+    public void update() {
+        Request done;
+        while ((done = finished.poll()) != null) {
+            finish(done);
+        }
+
+        long start = System.nanoTime();
+
+        while (head < queue.size) {
+            Request request = queue.get(head);
+            queue.set(head++, null);
+            waiting.get(request.graph).remove(request.key);
+            request.clusterGraph = clusterGraphs.get(request.graph);
+
+            if (async) {
+                // Requests found for the same tiles while this one is out are searched again rather than merged.
+                request.finished = finished;
+                getWorkers().execute(request);
+                continue;
+            }
+
+            request.run();
+            finish(request);
+
+            if (System.nanoTime() - start >= budget) {
+                break;
+            }
+        }
+
+        // Drop the served requests from the front of the queue once they make up most of it.
+        if (head == queue.size) {
+            queue.clear();
+            head = 0;
+        } else if (head > queue.size / 2) {
+            queue.removeRange(0, head - 1);
+            head = 0;
+        }
+    }
+
+    /**
+     * Tells everyone who asked for a request the result, and keeps the request to be reused.
+     *
+     * @param request the searched request
+     */
+    private void finish(Request request) {
+        for (int i = 0; i < request.listeners.size; i++) {
+            request.listeners.get(i).pathFound(request.graph, request.path, request.complete);
+        }
+
+        request.graph = null;
+        request.clusterGraph = null;
+        request.finished = null;
+        request.listeners.clear();
+        freeRequests.add(request);
+    }
+
+    /**
+     * A search waiting to be run. Everything a worker reads is set before it is handed over, and everything it writes
+     * is published back through the finished queue.
+     */
+    private static final class Request implements Runnable {
+
+        /**
+         * The graph to search.
+         */
+        TileGraph graph;
+
+        /**
+         * The cluster graph to use if the goal is far away, or null to only search the tiles.
+         */
+        ClusterGraph clusterGraph;
+
+        /**
+         * How to search the tiles.
+         */
+        PathStrategy strategy;
+
+        /**
+         * The start and goal tile indices packed together, used to find duplicates.
+         */
+        long key;
+
+        /**
+         * The start and goal tiles.
+         */
+        int startX, startY, goalX, goalY;
+
+        /**
+         * The most tiles to expand, or 0 for no limit.
+         */
+        int maxNodes;
+
+        /**
+         * Who to tell the result.
+         */
+        final Array<PathListener> listeners = new Array<PathListener>(false, 4);
+
+        /**
+         * The path found.
+         */
+        final IntArray path = new IntArray();
+
+        /**
+         * Whether the path leads to the goal.
+         */
+        boolean complete;
+
+        /**
+         * Where to put this request once a worker has searched it, or null if it is searched during update.
+         */
+        ConcurrentLinkedQueue<Request> finished;
+
+        /**
+         * Runs the search. Requests with a far away goal go through the cluster graph if there is one, so they aren't
+         * cut short by the expansion limit. If that finds nothing, or the goal is close, the tiles are searched directly.
+         */
+        @Override
+        public void run() {
+            complete = false;
+
+            try {
+                if (clusterGraph != null && Math.max(Math.abs(goalX - startX), Math.abs(goalY - startY)) > LONG_RANGE
+                        && clusterGraph.findPath(startX, startY, goalX, goalY, path)) {
+                    complete = true;
+                } else {
+                    complete = strategy.findPath(graph, startX, startY, goalX, goalY, maxNodes, path);
+                }
+            } finally {
+                // Always hand the request back, even if the search failed, so its listeners aren't left waiting.
+                if (finished != null) {
+                    finished.add(this);
+                }
+            }
+        }
+    }
+}
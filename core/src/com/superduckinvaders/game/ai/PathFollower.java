@@ -0,0 +1,192 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Keeps a path found for a mob and tracks how far along it the mob has got, so the path can be followed over many
+ * updates instead of being searched for again each time. Says when the path is no longer worth following: when the goal
+ * has moved too far from where the path ends, when the mob has been pushed off it, or when it has run out. The path can
+ * be tile by tile, or smoothed into straight segments between tiles further apart.
+ */
+public final class PathFollower {
+
+    /**
+     * How many tiles the goal can move from the end of the path before it is replanned.
+     */
+    public static final int GOAL_DRIFT = 2;
+
+    /**
+     * How many tiles ahead on the path to look for the mob's tile, in case it has skipped some (e.g. by moving
+     * diagonally past a corner).
+     */
+    private static final int LOOKAHEAD = 3;
+
+    /**
+     * How many tiles the mob can stray from a straight segment of the path before it is replanned.
+     */
+    private static final double MAX_STRAY = 1.5;
+
+    /**
+     * The tiles on the path, from the first step after the start to the end.
+     */
+    private final IntArray path = new IntArray();
+
+    /**
+     * The index in the path of the next tile to head for.
+     */
+    private int index = 0;
+
+    /**
+     * The tile on the path the mob last passed (or started from), or -1 if unknown.
+     */
+    private int previousTile = -1;
+
+    /**
+     * The goal tile the path was found for.
+     */
+    private int goalX, goalY;
+
+    /**
+     * Whether the path leads all the way to its goal.
+     */
+    private boolean complete = false;
+
+    /**
+     * Whether there is a path being followed.
+     */
+    private boolean following = false;
+
+    /**
+     * Starts following a new tile by tile path.
+     *
+     * @param path     the tiles on the path, which are copied
+     * @param goalX    the x coordinate of the goal tile the path was found for
+     * @param goalY    the y coordinate of the goal tile the path was found for
+     * @param complete whether the path leads all the way to the goal
+     */
+    public void setPath(IntArray path, int goalX, int goalY, boolean complete) {
+        setPath(path, -1, goalX, goalY, complete);
+    }
+
+    /**
+     * Starts following a new path, which may have been smoothed so that neighbouring entries are more than a tile apart.
+     *
+     * @param path      the tiles on the path, which are copied
+     * @param startTile the index of the tile the path starts from, or -1 if unknown (only for tile by tile paths)
+     * @param goalX     the x coordinate of the goal tile the path was found for
+     * @param goalY     the y coordinate of the goal tile the path was found for
+     * @param complete  whether the path leads all the way to the goal
+     */
+    public void setPath(IntArray path, int startTile, int goalX, int goalY, boolean complete) {
+        this.path.clear();
+        this.path.addAll(path);
+        this.goalX = goalX;
+        this.goalY = goalY;
+        this.complete = complete;
+        previousTile = startTile;
+        index = 0;
+        following = true;
+    }
+
+    /**
+     * Stops following the current path.
+     */
+    public void clear() {
+        path.clear();
+        following = false;
+    }
+
+    /**
+     * Moves along the path to account for the tile the mob is now on.
+     *
+     * @param graph the graph the path was found on
+     * @param tileX the x coordinate of the mob's tile
+     * @param tileY the y coordinate of the mob's tile
+     */
+    public void advance(TileGraph graph, int tileX, int tileY) {
+        int tile = tileX + tileY * graph.getWidth();
+
+        for (int i = index; i < Math.min(path.size, index + LOOKAHEAD); i++) {
+            if (path.get(i) == tile) {
+                previousTile = tile;
+                index = i + 1;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the next tile to head for, after calling advance.
+     *
+     * @return the index of the next tile on the path, or -1 if the end has been reached
+     */
+    public int getNextTile() {
+        return following && index < path.size ? path.get(index) : -1;
+    }
+
+    /**
+     * Gets whether the path should be searched for again.
+     *
+     * @param graph the graph the path was found on
+     * @param tileX the x coordinate of the mob's tile
+     * @param tileY the y coordinate of the mob's tile
+     * @param goalX the x coordinate of where the mob wants to go now
+     * @param goalY the y coordinate of where the mob wants to go now
+     * @return true if there is no path, the goal has moved more than GOAL_DRIFT tiles from the path's goal, the mob
+     * can no longer step onto the next tile from where it is (or has strayed more than MAX_STRAY tiles from the straight
+     * segment leading to it), or the path ran out before reaching the goal
+     */
+    public boolean needsReplan(TileGraph graph, int tileX, int tileY, int goalX, int goalY) {
+        if (!following || Math.max(Math.abs(goalX - this.goalX), Math.abs(goalY - this.goalY)) > GOAL_DRIFT) {
+            return true;
+        }
+
+        int next = getNextTile();
+
+        if (next < 0) {
+            // At the end of the path, which is fine if it reached the goal and the goal hasn't moved off it.
+            return !complete || tileX != goalX || tileY != goalY;
+        }
+
+        int nextX = next % graph.getWidth(), nextY = next / graph.getWidth();
+
+        if (!graph.isPassable(nextX, nextY)) {
+            return true;
+        }
+
+        // Further than a step from the next tile, which is fine along a straight segment as long as the mob is near it.
+        if (Math.abs(nextX - tileX) > 1 || Math.abs(nextY - tileY) > 1) {
+            return previousTile < 0 || distanceToSegment(tileX, tileY, previousTile % graph.getWidth(), previousTile / graph.getWidth(), nextX, nextY) > MAX_STRAY;
+        }
+
+        for (int i = 0; i < 8; i++) {
+            if (tileX + TileGraph.OFFSETS_X[i] == nextX && tileY + TileGraph.OFFSETS_Y[i] == nextY) {
+                return !graph.canMove(tileX, tileY, i);
+            }
+        }
+
+        // Standing on the next tile already.
+        return false;
+    }
+
+    /**
+     * Gets the distance from a tile to the nearest point on a segment between two other tiles.
+     *
+     * @param tileX  the x coordinate of the tile
+     * @param tileY  the y coordinate of the tile
+     * @param startX the x coordinate of the tile at the start of the segment
+     * @param startY the y coordinate of the tile at the start of the segment
+     * @param endX   the x coordinate of the tile at the end of the segment
+     * @param endY   the y coordinate of the tile at the end of the segment
+     * @return the distance in tiles
+     */
+    private static double distanceToSegment(int tileX, int tileY, int startX, int startY, int endX, int endY) {
+        double segmentX = endX - startX, segmentY = endY - startY;
+        double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+        double along = lengthSquared == 0 ? 0 : ((tileX - startX) * segmentX + (tileY - startY) * segmentY) / lengthSquared;
+
+        along = Math.max(0, Math.min(1, along));
+
+        return Math.hypot(tileX - (startX + along * segmentX), tileY - (startY + along * segmentY));
+    }
+}
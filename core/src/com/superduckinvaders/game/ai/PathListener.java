@@ -0,0 +1,19 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Receives the result of a path request made to a PathBroker.
+ */
+public interface PathListener {
+
+    /**
+     * Called when a requested path has been found. The path array is shared with every other listener waiting for the
+     * same path and is reused afterwards, so it must be copied if it needs to be kept.
+     *
+     * @param graph    the graph that was searched
+     * @param path     the tile indices on the path, from the first step after the start to the end
+     * @param complete true if the path leads all the way to the goal, false if it only leads closer to it
+     */
+    void pathFound(TileGraph graph, IntArray path, boolean complete);
+}
@@ -0,0 +1,69 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.entity.CollisionWorld;
+import com.superduckinvaders.game.entity.Entity;
+
+/**
+ * Turns a tile by tile path into a few straight segments by string pulling: each tile is dropped if the tile after it can
+ * be reached in a straight line from the last tile kept. Whether the line is clear is checked by sweeping the entity's
+ * box along it against the terrain, so the segments can run at any angle rather than only the eight directions a search
+ * can step in.
+ */
+public final class PathSmoother {
+
+    /**
+     * Not instantiable, all smoothing goes through smooth.
+     */
+    private PathSmoother() {
+    }
+
+    /**
+     * Smooths a path for an entity.
+     *
+     * @param world      the collision world to check lines against
+     * @param entity     the entity that will follow the path, whose size and terrain mask are used
+     * @param tileWidth  the width of a tile in pixels
+     * @param tileHeight the height of a tile in pixels
+     * @param mapWidth   the width of the map in tiles, used to turn tile indices into coordinates
+     * @param startTile  the index of the tile the path starts from
+     * @param path       the tile indices on the path, from the first step after the start to the end
+     * @param smoothed   the array to clear and fill with the tile indices to head for in turn, ending with the end of
+     *                   the path
+     */
+    public static void smooth(CollisionWorld world, Entity entity, int tileWidth, int tileHeight, int mapWidth, int startTile,
+                              IntArray path, IntArray smoothed) {
+        smoothed.clear();
+
+        int anchor = startTile;
+
+        for (int i = 0; i < path.size; i++) {
+            // Skip this tile if the one after it is in a clear line from the last tile kept.
+            if (i + 1 < path.size && isClear(world, entity, tileWidth, tileHeight, mapWidth, anchor, path.get(i + 1))) {
+                continue;
+            }
+
+            anchor = path.get(i);
+            smoothed.add(anchor);
+        }
+    }
+
+    /**
+     * Gets whether an entity can move in a straight line from one tile to another without hitting the terrain.
+     *
+     * @param world      the collision world to check against
+     * @param entity     the entity moving
+     * @param tileWidth  the width of a tile in pixels
+     * @param tileHeight the height of a tile in pixels
+     * @param mapWidth   the width of the map in tiles
+     * @param from       the index of the tile to move from
+     * @param to         the index of the tile to move to
+     * @return true if the entity's box can be swept between the tiles' bottom left corners
+     */
+    private static boolean isClear(CollisionWorld world, Entity entity, int tileWidth, int tileHeight, int mapWidth, int from, int to) {
+        double fromX = (from % mapWidth) * tileWidth, fromY = (from / mapWidth) * tileHeight;
+        double deltaX = (to % mapWidth) * tileWidth - fromX, deltaY = (to / mapWidth) * tileHeight - fromY;
+
+        return !world.collides(fromX, fromY, entity.getWidth(), entity.getHeight(), deltaX, deltaY, entity.getTerrainMask(), 0, entity);
+    }
+}
@@ -0,0 +1,44 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The ways an AI can search the tiles for a path. Both find paths of the same cost; they differ in how much work it
+ * takes on different kinds of map.
+ */
+public enum PathStrategy {
+
+    /**
+     * Plain A* over every tile, which does well in tight spaces.
+     */
+    A_STAR {
+        @Override
+        public boolean findPath(TileGraph graph, int startX, int startY, int goalX, int goalY, int maxNodes, IntArray path) {
+            return TilePathfinder.findPath(graph, startX, startY, goalX, goalY, maxNodes, path);
+        }
+    },
+
+    /**
+     * Jump Point Search, which skips across open ground and does well on large empty maps.
+     */
+    JUMP_POINT {
+        @Override
+        public boolean findPath(TileGraph graph, int startX, int startY, int goalX, int goalY, int maxNodes, IntArray path) {
+            return JumpPointPathfinder.findPath(graph, startX, startY, goalX, goalY, maxNodes, path);
+        }
+    };
+
+    /**
+     * Finds a path between two tiles, or towards the goal if it can't be reached within the expansion limit.
+     *
+     * @param graph    the graph to search
+     * @param startX   the x coordinate of the start tile
+     * @param startY   the y coordinate of the start tile
+     * @param goalX    the x coordinate of the goal tile
+     * @param goalY    the y coordinate of the goal tile
+     * @param maxNodes the most nodes to expand before giving up, or 0 for no limit
+     * @param path     the array to clear and fill with the tile indices on the path, from the first step after the start
+     * @return true if the path leads to the goal, false if it only leads closer to it
+     */
+    public abstract boolean findPath(TileGraph graph, int startX, int startY, int goalX, int goalY, int maxNodes, IntArray path);
+}
@@ -0,0 +1,153 @@
+package com.superduckinvaders.game.ai;
+
+import com.superduckinvaders.game.map.ClearanceMap;
+import com.superduckinvaders.game.map.CompiledMap;
+
+/**
+ * The tiles a box of a particular size can stand on, treated as a graph where each tile links to its eight neighbours.
+ * A box "stands on" a tile when it fits with its bottom left corner at the tile's bottom left corner. Made once per
+ * Round for each size of mob, and shared by every search over the map. Graphs for different sizes all read the same
+ * ClearanceMap, so a new size costs no more than the object itself.
+ */
+public final class TileGraph {
+
+    /**
+     * The cost of moving to an orthogonal neighbour.
+     */
+    public static final int STRAIGHT_COST = 10;
+
+    /**
+     * The cost of moving to a diagonal neighbour (roughly STRAIGHT_COST * sqrt(2)).
+     */
+    public static final int DIAGONAL_COST = 14;
+
+    /**
+     * The x and y offsets to each of the eight neighbours of a tile. The first four are orthogonal.
+     */
+    static final int[] OFFSETS_X = {0, 1, 0, -1, 1, 1, -1, -1}, OFFSETS_Y = {1, 0, -1, 0, 1, -1, -1, 1};
+
+    /**
+     * The size of the map in tiles.
+     */
+    private final int width, height;
+
+    /**
+     * The clearance of each tile.
+     */
+    private final ClearanceMap clearance;
+
+    /**
+     * The size of the smallest square of tiles the box fits in.
+     */
+    private final int size;
+
+    /**
+     * Makes the graph for a box of the specified size.
+     *
+     * @param clearance the clearance map of the map to build the graph over
+     * @param boxWidth  the width of the box
+     * @param boxHeight the height of the box
+     */
+    public TileGraph(ClearanceMap clearance, int boxWidth, int boxHeight) {
+        this.clearance = clearance;
+        this.width = clearance.getWidth();
+        this.height = clearance.getHeight();
+        this.size = clearance.getBoxSize(boxWidth, boxHeight);
+    }
+
+    /**
+     * Makes the graph for a box of the specified size over a map that doesn't have a clearance map yet, treating
+     * collision and obstacle tiles as blocking.
+     *
+     * @param map       the map to build the graph over
+     * @param boxWidth  the width of the box
+     * @param boxHeight the height of the box
+     */
+    public TileGraph(CompiledMap map, int boxWidth, int boxHeight) {
+        this(new ClearanceMap(map, CompiledMap.BLOCKED | CompiledMap.OBSTACLE), boxWidth, boxHeight);
+    }
+
+    /**
+     * Gets the width of the map in tiles.
+     *
+     * @return the width of the graph
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the map in tiles.
+     *
+     * @return the height of the graph
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets whether the specified tile is on the map.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return true if the tile is on the map
+     */
+    public boolean inBounds(int tileX, int tileY) {
+        return tileX >= 0 && tileX < width && tileY >= 0 && tileY < height;
+    }
+
+    /**
+     * Gets whether the box fits on the specified tile.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return true if the tile is on the map and the box fits on it
+     */
+    public boolean isPassable(int tileX, int tileY) {
+        return clearance.fits(tileX, tileY, size);
+    }
+
+    /**
+     * Gets whether the box can move from a tile to one of its neighbours. Diagonal moves are only allowed when both
+     * orthogonal tiles beside them are passable, so that moves never cut the corner of a wall.
+     *
+     * @param tileX     the x coordinate of the tile to move from
+     * @param tileY     the y coordinate of the tile to move from
+     * @param neighbour which neighbour to move to, as an index into the offset arrays (0 to 7)
+     * @return true if the move is allowed
+     */
+    public boolean canMove(int tileX, int tileY, int neighbour) {
+        int toX = tileX + OFFSETS_X[neighbour], toY = tileY + OFFSETS_Y[neighbour];
+
+        if (!isPassable(toX, toY)) {
+            return false;
+        }
+
+        return neighbour < 4 || (clearance.fits(toX, tileY, size) && clearance.fits(tileX, toY, size));
+    }
+
+    /**
+     * Gets the cost of moving to one of a tile's neighbours.
+     *
+     * @param neighbour which neighbour, as an index into the offset arrays (0 to 7)
+     * @return the cost of the move
+     */
+    public static int moveCost(int neighbour) {
+        return neighbour < 4 ? STRAIGHT_COST : DIAGONAL_COST;
+    }
+
+    /**
+     * Estimates the cost of moving between two tiles assuming nothing is in the way (the octile distance).
+     *
+     * @param fromX the x coordinate of the first tile
+     * @param fromY the y coordinate of the first tile
+     * @param toX   the x coordinate of the second tile
+     * @param toY   the y coordinate of the second tile
+     * @return the estimated cost, never more than the real cost
+     */
+    public static int estimateCost(int fromX, int fromY, int toX, int toY) {
+        int deltaX = Math.abs(toX - fromX), deltaY = Math.abs(toY - fromY);
+
+        return STRAIGHT_COST * Math.max(deltaX, deltaY) + (DIAGONAL_COST - STRAIGHT_COST) * Math.min(deltaX, deltaY);
+    }
+}
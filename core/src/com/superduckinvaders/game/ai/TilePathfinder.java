@@ -0,0 +1,183 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A* search over a TileGraph. All search state lives in flat arrays in a workspace kept for each thread and reused
+ * between searches, so once the workspace has grown to the size of the map a search allocates nothing.
+ */
+public final class TilePathfinder {
+
+    /**
+     * The workspace for each thread that searches.
+     */
+    private static final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+        @Override
+        protected Workspace initialValue() {
+            return new Workspace();
+        }
+    };
+
+    /**
+     * Not instantiable, all searches go through findPath.
+     */
+    private TilePathfinder() {
+    }
+
+    /**
+     * Finds a path between two tiles. If the goal can't be reached within the expansion limit, finds a path to the
+     * tile searched that was estimated to be closest to the goal instead, so that whatever follows the path still
+     * makes progress. The start tile is searched from even if the box doesn't fit on it.
+     *
+     * @param graph    the graph to search
+     * @param startX   the x coordinate of the start tile
+     * @param startY   the y coordinate of the start tile
+     * @param goalX    the x coordinate of the goal tile
+     * @param goalY    the y coordinate of the goal tile
+     * @param maxNodes the most tiles to expand before giving up, or 0 for no limit
+     * @param path     the array to clear and fill with the tile indices (x + y * width) on the path, from the first
+     *                 step after the start to the end. Empty if the start is the goal or nothing better was found.
+     * @return true if the path leads to the goal, false if it only leads closer to it
+     */
+    public static boolean findPath(TileGraph graph, int startX, int startY, int goalX, int goalY, int maxNodes, IntArray path) {
+        path.clear();
+
+        Workspace workspace = workspaces.get();
+        workspace.expanded = 0;
+
+        if (!graph.inBounds(startX, startY) || !graph.inBounds(goalX, goalY)) {
+            return false;
+        }
+
+        workspace.begin(graph.getWidth() * graph.getHeight());
+
+        int width = graph.getWidth();
+        int start = startX + startY * width, goal = goalX + goalY * width;
+        int[] costs = workspace.costs, parents = workspace.parents, stamps = workspace.stamps;
+        int stamp = workspace.stamp;
+        IntPriorityQueue open = workspace.open;
+
+        stamps[start] = stamp;
+        costs[start] = 0;
+        parents[start] = -1;
+        open.add(start, TileGraph.estimateCost(startX, startY, goalX, goalY));
+
+        int closest = start, closestEstimate = TileGraph.estimateCost(startX, startY, goalX, goalY);
+
+        while (!open.isEmpty()) {
+            int priority = open.peekPriority();
+            int tile = open.poll();
+            int tileX = tile % width, tileY = tile / width;
+
+            // Skip stale entries left behind when a tile's cost was lowered.
+            if (priority > costs[tile] + TileGraph.estimateCost(tileX, tileY, goalX, goalY)) {
+                continue;
+            }
+
+            if (tile == goal) {
+                closest = goal;
+                break;
+            }
+
+            int estimate = priority - costs[tile];
+            if (estimate < closestEstimate) {
+                closest = tile;
+                closestEstimate = estimate;
+            }
+
+            if (maxNodes > 0 && workspace.expanded >= maxNodes) {
+                break;
+            }
+            workspace.expanded++;
+
+            for (int i = 0; i < 8; i++) {
+                if (!graph.canMove(tileX, tileY, i)) {
+                    continue;
+                }
+
+                int neighbourX = tileX + TileGraph.OFFSETS_X[i], neighbourY = tileY + TileGraph.OFFSETS_Y[i];
+                int neighbour = neighbourX + neighbourY * width;
+                int cost = costs[tile] + TileGraph.moveCost(i);
+
+                if (stamps[neighbour] == stamp && costs[neighbour] <= cost) {
+                    continue;
+                }
+
+                stamps[neighbour] = stamp;
+                costs[neighbour] = cost;
+                parents[neighbour] = tile;
+                open.add(neighbour, cost + TileGraph.estimateCost(neighbourX, neighbourY, goalX, goalY));
+            }
+        }
+
+        // Walk back from the end to the start, then flip the path round.
+        for (int tile = closest; tile != start; tile = parents[tile]) {
+            path.add(tile);
+        }
+        path.reverse();
+
+        return closest == goal;
+    }
+
+    /**
+     * Gets how many tiles the last search on this thread expanded.
+     *
+     * @return the number of expanded tiles
+     */
+    public static int getExpandedCount() {
+        return workspaces.get().expanded;
+    }
+
+    /**
+     * The arrays used by one thread's searches.
+     */
+    private static final class Workspace {
+
+        /**
+         * The cost of the best known route to each tile, valid only where the matching stamp is the current one.
+         */
+        int[] costs = new int[0];
+
+        /**
+         * The tile each tile was reached from, valid only where the matching stamp is the current one.
+         */
+        int[] parents = new int[0];
+
+        /**
+         * Which search last reached each tile, so the arrays don't need clearing between searches.
+         */
+        int[] stamps = new int[0];
+
+        /**
+         * Incremented at the start of every search.
+         */
+        int stamp = 0;
+
+        /**
+         * How many tiles the last search expanded.
+         */
+        int expanded = 0;
+
+        /**
+         * The open list.
+         */
+        final IntPriorityQueue open = new IntPriorityQueue(256);
+
+        /**
+         * Gets this Workspace ready for a new search, growing it if necessary.
+         *
+         * @param tiles how many tiles the graph being searched has
+         */
+        void begin(int tiles) {
+            if (costs.length < tiles) {
+                costs = new int[tiles];
+                parents = new int[tiles];
+                stamps = new int[tiles];
+                stamp = 0;
+            }
+
+            stamp++;
+            open.clear();
+        }
+    }
+}
@@ -49,7 +49,7 @@ public class Assets {
     public static TextureSet bossNormal, bossSwimming;
 
     /**
-     * Texture for Projectile.
+     * Texture for projectiles.
      */
     public static TextureRegion projectile;
 
@@ -1,7 +1,7 @@
 package com.superduckinvaders.game.entity;
 
-import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
 import com.superduckinvaders.game.DuckGame;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.assets.TextureSet;
@@ -16,6 +16,11 @@ public abstract class Character extends Entity {
      */
     private static final float DEMENTED_TIME = 10;
 
+    /**
+     * Reused to hold the results of searching for melee targets.
+     */
+    private static final Array<Entity> meleeTargets = new Array<Entity>(1);
+
     /**
      * Whether or not the character is swimming.
      */
@@ -99,6 +104,16 @@ public abstract class Character extends Entity {
         }
     }
 
+    /**
+     * Gets which categories of entity block this Character's movement.
+     *
+     * @return the categories of every kind of character
+     */
+    @Override
+    public int getCollisionMask() {
+        return CHARACTERS;
+    }
+
     /**
      * Damages this Character's health by the specified number of points.
      *
@@ -137,31 +152,18 @@ public abstract class Character extends Entity {
      */
     protected void melee(double range, int damage) {
         // Don't let mobs melee other mobs (for now).
-        if (this instanceof Mob) {
+        if ((getCategory() & MOB) != 0) {
             Player player = parent.getPlayer();
 
-            if (distanceTo(player.getX(), player.getY()) <= range && directionTo(player.getX(), player.getY()) == facing) {
+            if (distanceSquaredTo(player.getX(), player.getY()) <= range * range && directionTo(player.getX(), player.getY()) == facing) {
                 player.damage(damage);
             }
         } else {
-            // Attack the closest Character within the range.
-            Character closest = null;
-
-            for (Entity entity : parent.getEntities()) {
-                // Disregard entity if it's me or it isn't a Character.
-                if (this == entity || !(entity instanceof Character)) {
-                    continue;
-                }
-
-                double x = entity.getX(), y = entity.getY();
-                if (distanceTo(x, y) <= range && directionTo(x, y) == facing && (closest == null || distanceTo(x, y) < distanceTo(closest.getX(), closest.getY()))) {
-                    closest = (Character) entity;
-                }
-            }
-
+            // Attack the closest Character within the range in the direction we're facing.
             // Can't attack if nothing in range.
-            if (closest != null) {
-                closest.damage(damage);
+            if (parent.findCharactersNear(x, y, range, facing, 1, this, meleeTargets) > 0) {
+                ((Character) meleeTargets.first()).damage(damage);
+                meleeTargets.clear();
             }
         }
     }
@@ -170,10 +172,7 @@ public abstract class Character extends Entity {
      * checks whether the character is swimming and sets isSwimming appropriately
      */
     public void checkSwimming() {
-        int tileWidth = parent.getTileWidth();
-        TiledMapTileLayer water = (TiledMapTileLayer) parent.getMap().getLayers().get("Water");
-
-        isSwimming = water.getCell((int) x / tileWidth, (int) y / tileWidth) != null;
+        isSwimming = parent.getCompiledMap().isWater((int) x / parent.getTileWidth(), (int) y / parent.getTileHeight());
     }
 
     /**
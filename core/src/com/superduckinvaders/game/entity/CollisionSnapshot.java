@@ -0,0 +1,265 @@
+package com.superduckinvaders.game.entity;
+
+import com.superduckinvaders.game.map.CompiledMap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A copy of where every colliding entity was at one point in time, together with the compiled map. The Round keeps two
+ * snapshots and refills them in turn each step, so queries see consistent positions no matter what moves during the
+ * step, and the snapshot from the step before stays untouched until the one after. Entities are bucketed in a coarse
+ * uniform grid stored in flat arrays, which are reused from one refill to the next and only grow when more entities
+ * need copying than ever before.
+ */
+public final class CollisionSnapshot implements CollisionWorld {
+
+    /**
+     * How many map tiles wide and high each bucket of the grid is.
+     */
+    private static final int CELL_TILES = 4;
+
+    /**
+     * The map to check tiles against.
+     */
+    private final CompiledMap map;
+
+    /**
+     * The size of each bucket in pixels.
+     */
+    private final int cellWidth, cellHeight;
+
+    /**
+     * How many buckets there are in each direction.
+     */
+    private final int columns, rows;
+
+    /**
+     * Where each bucket's entries start in the entries array. Bucket i holds entries cellStarts[i] to
+     * cellStarts[i + 1] - 1.
+     */
+    private final int[] cellStarts;
+
+    /**
+     * How many entries have been sorted into each bucket so far, only used while refilling.
+     */
+    private final int[] filled;
+
+    /**
+     * The entities in this snapshot, only used to leave out the one asking.
+     */
+    private Entity[] entities = new Entity[0];
+
+    /**
+     * The position of each entity when the snapshot was taken.
+     */
+    private double[] xs = new double[0], ys = new double[0];
+
+    /**
+     * The size and category of each entity when the snapshot was taken.
+     */
+    private int[] widths = new int[0], heights = new int[0], categories = new int[0];
+
+    /**
+     * The indices of the entities in each bucket, stored one bucket after another.
+     */
+    private int[] cellEntries = new int[0];
+
+    /**
+     * How many entities are in this snapshot.
+     */
+    private int count = 0;
+
+    /**
+     * The size of the largest entity in this snapshot.
+     */
+    private int maxWidth = 0, maxHeight = 0;
+
+    /**
+     * Initialises an empty snapshot of the specified map.
+     *
+     * @param map the map to check tiles against
+     */
+    public CollisionSnapshot(CompiledMap map) {
+        this.map = map;
+
+        cellWidth = map.getTileWidth() * CELL_TILES;
+        cellHeight = map.getTileHeight() * CELL_TILES;
+        columns = Math.max(1, (map.getMapWidth() + cellWidth - 1) / cellWidth);
+        rows = Math.max(1, (map.getMapHeight() + cellHeight - 1) / cellHeight);
+
+        cellStarts = new int[columns * rows + 1];
+        filled = new int[columns * rows];
+    }
+
+    /**
+     * Takes a snapshot of the specified entities. Entities without a category can't block anything and are left out.
+     *
+     * @param map      the map to check tiles against
+     * @param entities the entities to copy
+     */
+    public CollisionSnapshot(CompiledMap map, List<? extends Entity> entities) {
+        this(map);
+        refill(entities);
+    }
+
+    /**
+     * Replaces the contents of this snapshot with the specified entities. Entities without a category can't block
+     * anything and are left out.
+     *
+     * @param entities the entities to copy
+     */
+    public void refill(List<? extends Entity> entities) {
+        int size = entities.size();
+
+        // Make sure there's room for every entity, so the copy below needs no second pass to count them.
+        if (this.entities.length < size) {
+            int capacity = Math.max(size, this.entities.length * 2);
+
+            this.entities = new Entity[capacity];
+            xs = new double[capacity];
+            ys = new double[capacity];
+            widths = new int[capacity];
+            heights = new int[capacity];
+            categories = new int[capacity];
+            cellEntries = new int[capacity];
+        }
+
+        int index = 0, largestWidth = 0, largestHeight = 0;
+        for (int i = 0; i < size; i++) {
+            Entity entity = entities.get(i);
+
+            if (entity.getCategory() == 0 || entity.isRemoved()) {
+                continue;
+            }
+
+            this.entities[index] = entity;
+            xs[index] = entity.getX();
+            ys[index] = entity.getY();
+            widths[index] = entity.getWidth();
+            heights[index] = entity.getHeight();
+            categories[index] = entity.getCategory();
+
+            largestWidth = Math.max(largestWidth, widths[index]);
+            largestHeight = Math.max(largestHeight, heights[index]);
+            index++;
+        }
+
+        // Don't keep entities from the last snapshot alive.
+        if (index < count) {
+            Arrays.fill(this.entities, index, count, null);
+        }
+
+        count = index;
+        maxWidth = largestWidth;
+        maxHeight = largestHeight;
+
+        // Counting sort the entities into buckets by their bottom left corner.
+        Arrays.fill(cellStarts, 0);
+        Arrays.fill(filled, 0);
+
+        for (int i = 0; i < count; i++) {
+            cellStarts[cellIndex(xs[i], ys[i]) + 1]++;
+        }
+
+        for (int i = 0; i < columns * rows; i++) {
+            cellStarts[i + 1] += cellStarts[i];
+        }
+
+        for (int i = 0; i < count; i++) {
+            int cell = cellIndex(xs[i], ys[i]);
+            cellEntries[cellStarts[cell] + filled[cell]++] = i;
+        }
+    }
+
+    /**
+     * Gets how many entities are in this snapshot.
+     *
+     * @return the number of entities copied by the last refill
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean collides(double x, double y, int width, int height, double deltaX, double deltaY, int terrainMask, int entityMask, Entity ignore) {
+        if (entityMask != 0 && intersectsEntity(x + deltaX, y + deltaY, width, height, entityMask, ignore)) {
+            return true;
+        }
+
+        if (terrainMask == 0) {
+            return false;
+        } else if (deltaX == 0 && deltaY == 0) {
+            return map.overlaps(x, y, width, height, terrainMask);
+        } else {
+            return map.sweep(x, y, width, height, deltaX, deltaY, terrainMask, null);
+        }
+    }
+
+    /**
+     * Gets whether a box intersects any entity in this snapshot with one of the specified categories.
+     *
+     * @param x      the x coordinate of the box's bottom left corner
+     * @param y      the y coordinate of the box's bottom left corner
+     * @param width  the width of the box
+     * @param height the height of the box
+     * @param mask   the categories of entity to check
+     * @param ignore an entity to leave out of the check, or null
+     * @return true if the box intersects a matching entity
+     */
+    private boolean intersectsEntity(double x, double y, int width, int height, int mask, Entity ignore) {
+        int minColumn = column(x - maxWidth), maxColumn = column(x + width);
+        int minRow = row(y - maxHeight), maxRow = row(y + height);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = column + row * columns;
+
+                for (int entry = cellStarts[cell]; entry < cellStarts[cell + 1]; entry++) {
+                    int i = cellEntries[entry];
+
+                    if ((categories[i] & mask) != 0 && entities[i] != ignore
+                            && xs[i] < x + width && xs[i] + widths[i] > x && ys[i] < y + height && ys[i] + heights[i] > y) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the index of the bucket containing the specified coordinates.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the index of the bucket
+     */
+    private int cellIndex(double x, double y) {
+        return column(x) + row(y) * columns;
+    }
+
+    /**
+     * Gets the bucket column containing the specified x coordinate, clamped to the grid.
+     *
+     * @param x the x coordinate
+     * @return the column
+     */
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellWidth)));
+    }
+
+    /**
+     * Gets the bucket row containing the specified y coordinate, clamped to the grid.
+     *
+     * @param y the y coordinate
+     * @return the row
+     */
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellHeight)));
+    }
+}
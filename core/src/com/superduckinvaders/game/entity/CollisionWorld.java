@@ -0,0 +1,26 @@
+package com.superduckinvaders.game.entity;
+
+/**
+ * Answers collision queries about explicit boxes without touching any entity's state, so that searches (e.g. AI
+ * pathfinding) can ask "what if" questions about positions an entity isn't actually at.
+ */
+public interface CollisionWorld {
+
+    /**
+     * Gets whether moving a box by the specified offset would collide with a blocking tile or entity. Tiles are checked
+     * along the whole movement, and entities at the destination. A zero offset checks whether the box is already
+     * colliding.
+     *
+     * @param x           the x coordinate of the box's bottom left corner
+     * @param y           the y coordinate of the box's bottom left corner
+     * @param width       the width of the box
+     * @param height      the height of the box
+     * @param deltaX      how far the box moves in the x direction
+     * @param deltaY      how far the box moves in the y direction
+     * @param terrainMask the tile flags that block the box (a combination of the CompiledMap flag constants)
+     * @param entityMask  the categories of entity that block the box (a combination of the Entity category constants)
+     * @param ignore      an entity to leave out of the check (usually the one asking), or null
+     * @return true if the movement would collide with something
+     */
+    boolean collides(double x, double y, int width, int height, double deltaX, double deltaY, int terrainMask, int entityMask, Entity ignore);
+}
@@ -3,12 +3,54 @@ package com.superduckinvaders.game.entity;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.map.CompiledMap;
+import com.superduckinvaders.game.map.SweepResult;
 
 /**
  * Represents an object in the game.
  */
 public abstract class Entity {
 
+    /**
+     * Category bit for the player.
+     */
+    public static final int PLAYER = 1;
+
+    /**
+     * Category bit for mobs.
+     */
+    public static final int MOB = 2;
+
+    /**
+     * Category bit for projectiles.
+     */
+    public static final int PROJECTILE = 4;
+
+    /**
+     * Category bit for items on the floor.
+     */
+    public static final int ITEM = 8;
+
+    /**
+     * Category bit set while an entity is flying, letting it pass over obstacles.
+     */
+    public static final int FLYING = 16;
+
+    /**
+     * Category bits of every kind of character.
+     */
+    public static final int CHARACTERS = PLAYER | MOB;
+
+    /**
+     * The id to give the next Entity made. Ids start at 1 so that 0 can stand for no entity.
+     */
+    private static int nextId = 1;
+
+    /**
+     * A number identifying this Entity, never given to any other Entity while the game runs.
+     */
+    private final int id = nextId++;
+
     /**
      * The round that this Entity is in.
      */
@@ -19,6 +61,12 @@ public abstract class Entity {
      */
     protected double x, y;
 
+    /**
+     * The x and y coordinates of this Entity at the start of the last simulation step, used to draw it smoothly between
+     * steps.
+     */
+    protected double previousX, previousY;
+
     /**
      * The x and y velocity of this MobileEntity in pixels per second.
      */
@@ -29,6 +77,21 @@ public abstract class Entity {
      */
     public boolean removed = false;
 
+    /**
+     * The spatial grid this Entity is indexed in, or null if it isn't in one.
+     */
+    SpatialGrid grid = null;
+
+    /**
+     * The index of the bucket this Entity occupies in its spatial grid.
+     */
+    int gridCell = -1;
+
+    /**
+     * Reused to hold the result of sweeping this Entity through the map.
+     */
+    protected final SweepResult sweep = new SweepResult();
+
     /**
      * Initialises this Entity with zero initial coordinates.
      *
@@ -47,8 +110,17 @@ public abstract class Entity {
      */
     public Entity(Round parent, double x, double y) {
         this.parent = parent;
-        this.x = x;
-        this.y = y;
+        this.x = this.previousX = x;
+        this.y = this.previousY = y;
+    }
+
+    /**
+     * Returns the id of the entity
+     *
+     * @return the id of this Entity, which is never 0
+     */
+    public int getId() {
+        return id;
     }
 
     /**
@@ -69,6 +141,63 @@ public abstract class Entity {
         return y;
     }
 
+    /**
+     * Gets the x coordinate to draw this Entity at, between where it was at the start of the last simulation step and
+     * where it is now, according to how far the Round is through the next step.
+     *
+     * @return the interpolated x coordinate of this Entity
+     */
+    public double getRenderX() {
+        return previousX + (x - previousX) * parent.getInterpolation();
+    }
+
+    /**
+     * Gets the y coordinate to draw this Entity at, between where it was at the start of the last simulation step and
+     * where it is now, according to how far the Round is through the next step.
+     *
+     * @return the interpolated y coordinate of this Entity
+     */
+    public double getRenderY() {
+        return previousY + (y - previousY) * parent.getInterpolation();
+    }
+
+    /**
+     * Remembers where this Entity is at the start of a simulation step, so it can be drawn moving smoothly towards
+     * where it ends up.
+     */
+    public void savePreviousPosition() {
+        previousX = x;
+        previousY = y;
+    }
+
+    /**
+     * Puts this Entity back to how it was when first made, at the origin with no velocity, so that it can be reused by a
+     * pool. Subclasses that are pooled call this from their own reset.
+     */
+    protected void resetEntity() {
+        x = previousX = 0;
+        y = previousY = 0;
+        velocityX = 0;
+        velocityY = 0;
+        removed = false;
+    }
+
+    /**
+     * Moves this Entity straight to a position without checking for collisions, keeping its spatial grid entry up to
+     * date. The Entity jumps there rather than being drawn sliding across.
+     *
+     * @param x the new x coordinate
+     * @param y the new y coordinate
+     */
+    public void setPosition(double x, double y) {
+        this.x = this.previousX = x;
+        this.y = this.previousY = y;
+
+        if (grid != null) {
+            grid.update(this);
+        }
+    }
+
     /**
      * Returns the x velocity of the entity
      *
@@ -108,7 +237,19 @@ public abstract class Entity {
      * @return the distance between this Entity and the coordinates, in pixels
      */
     public double distanceTo(double x, double y) {
-        return Math.sqrt(Math.pow(x - this.x, 2) + Math.pow(y - this.y, 2));
+        return Math.sqrt(distanceSquaredTo(x, y));
+    }
+
+    /**
+     * Returns the squared distance between this Entity and the specified coordinates. Cheaper than distanceTo when
+     * only comparing distances.
+     *
+     * @param x the x coordinate to compare with
+     * @param y the y coordinate to compare with
+     * @return the squared distance between this Entity and the coordinates, in pixels
+     */
+    public double distanceSquaredTo(double x, double y) {
+        return (x - this.x) * (x - this.x) + (y - this.y) * (y - this.y);
     }
 
     /**
@@ -130,7 +271,18 @@ public abstract class Entity {
      * @return the direction the coordinates are in relative to this Entity
      */
     public int directionTo(double x, double y) {
-        double angle = angleTo(x, y);
+        return direction(x - this.x, y - this.y);
+    }
+
+    /**
+     * Returns the direction of the specified offset (one of the FACING_ constants in TextureSet).
+     *
+     * @param deltaX the x component of the offset
+     * @param deltaY the y component of the offset
+     * @return the direction the offset points in
+     */
+    public static int direction(double deltaX, double deltaY) {
+        double angle = Math.atan2(deltaY, deltaX);
 
         if (angle < Math.PI * 3 / 4 && angle >= Math.PI / 4) {
             return TextureSet.FACING_BACK;
@@ -184,6 +336,34 @@ public abstract class Entity {
     }
 
 
+    /**
+     * Gets which kind of entity this is, used to filter collisions.
+     *
+     * @return a combination of the category constants, or 0 if nothing collides with this Entity
+     */
+    public int getCategory() {
+        return 0;
+    }
+
+    /**
+     * Gets which categories of entity block this Entity's movement.
+     *
+     * @return a combination of the category constants, or 0 if this Entity moves through other entities
+     */
+    public int getCollisionMask() {
+        return 0;
+    }
+
+    /**
+     * Gets which tile flags in the compiled map block this Entity.
+     *
+     * @return a combination of the CompiledMap flag constants
+     */
+    public int getTerrainMask() {
+        // Flying things pass over obstacles such as bushes.
+        return (getCategory() & FLYING) != 0 ? CompiledMap.BLOCKED : CompiledMap.BLOCKED | CompiledMap.OBSTACLE;
+    }
+
     /**
      * Gets whether the map tile at the specified coordinates is blocked or not.
      *
@@ -192,18 +372,48 @@ public abstract class Entity {
      * @return whether or not the map tile is blocked
      */
     public boolean isTileBlocked(int x, int y) {
-        int tileX = x / parent.getTileWidth();
-        int tileY = y / parent.getTileHeight();
+        CompiledMap map = parent.getCompiledMap();
 
-        //allows the player to fly over bushes (and only the player)
-        if (this instanceof Player && parent.getPlayer().isFlying()) {
-            return parent.getCollisionLayer().getCell(tileX, tileY) != null;
-        } else {
-            return parent.getCollisionLayer().getCell(tileX, tileY) != null || (parent.getObstaclesLayer() != null && parent.getObstaclesLayer().getCell(tileX, tileY) != null);
-        }
+        return (map.getFlags(x / map.getTileWidth(), y / map.getTileHeight()) & getTerrainMask()) != 0;
+    }
+
+    /**
+     * Gets whether this Entity currently ignores all collisions (e.g. because it is stuck).
+     *
+     * @return true if this Entity should move without colliding with anything
+     */
+    protected boolean ignoresCollisions() {
+        return false;
+    }
+
+    /**
+     * Gets whether this Entity would intersect a character if it were at the specified coordinates.
+     *
+     * @param x the x coordinate to test
+     * @param y the y coordinate to test
+     * @return whether a character is in the way
+     */
+    private boolean collidesCharacter(double x, double y) {
+        int mask = getCollisionMask();
 
+        return mask != 0 && parent.getCharacterGrid().findIntersecting(x, y, getWidth(), getHeight(), this, mask) != null;
     }
 
+    /**
+     * Gets whether moving by the specified amounts would take this Entity into a blocked tile. A zero movement checks
+     * whether this Entity is already overlapping a blocked tile.
+     *
+     * @param deltaX the x delta
+     * @param deltaY the y delta
+     * @return whether a tile collision would occur
+     */
+    private boolean collidesTiles(double deltaX, double deltaY) {
+        if (deltaX == 0 && deltaY == 0) {
+            return parent.getCompiledMap().overlaps(x, y, getWidth(), getHeight(), getTerrainMask());
+        }
+
+        return parent.getCompiledMap().sweep(x, y, getWidth(), getHeight(), deltaX, deltaY, getTerrainMask(), sweep);
+    }
 
     /**
      * Gets whether the specified x delta will cause a collision on the left or right.
@@ -212,19 +422,7 @@ public abstract class Entity {
      * @return whether a collision would occur on the left or right
      */
     public boolean collidesX(double deltaX) {
-        // Check for entity collisions.
-        for (Entity entity : parent.getEntities()) {
-            if (entity == this || this instanceof Projectile) {
-                continue;
-            }
-
-            if (entity instanceof Character && entity.intersects(x + deltaX, y, getWidth(), getHeight())) {
-                return true;
-            }
-        }
-
-        // Check for tile collisions.
-        return collidesLeft(deltaX) || collidesRight(deltaX);
+        return collidesCharacter(x + deltaX, y) || collidesTiles(deltaX, 0);
     }
 
     /**
@@ -234,25 +432,12 @@ public abstract class Entity {
      * @return whether a collision would occur on the bottom or top
      */
     public boolean collidesY(double deltaY) {
-        // Check for entity collisions.
-        for (Entity entity : parent.getEntities()) {
-            // Don't damage my owner.
-            if (entity == this || this instanceof Projectile) {
-                continue;
-            }
-
-            if (entity instanceof Character && entity.intersects(x, y + deltaY, getWidth(), getHeight())) {
-                return true;
-            }
-        }
-
-        // Check for tile collisions.
-        return collidesBottom(deltaY) || collidesTop(deltaY);
+        return collidesCharacter(x, y + deltaY) || collidesTiles(0, deltaY);
     }
 
     /**
      * Gets whether specified x delta will cause a collision from an arbitrary position
-     * Used in AI path detection.
+     * Used in AI path detection. Checks against the Round's collision snapshot, so doesn't change this Entity.
      *
      * @param deltaX the x delta
      * @param fromX  arbitrary x position
@@ -260,19 +445,12 @@ public abstract class Entity {
      * @return whether collides
      */
     public boolean collidesXfrom(double deltaX, double fromX, double fromY) {
-        double tempX = this.x;
-        double tempY = this.y;
-        this.x = fromX;
-        this.y = fromY;
-        boolean result = collidesX(deltaX);
-        this.x = tempX;
-        this.y = tempY;
-        return result;
+        return parent.getCollisionWorld().collides(fromX, fromY, getWidth(), getHeight(), deltaX, 0, getTerrainMask(), getCollisionMask(), this);
     }
 
     /**
      * Gets whether specified y delta will cause a collision from an arbitrary position
-     * Used in AI path detection.
+     * Used in AI path detection. Checks against the Round's collision snapshot, so doesn't change this Entity.
      *
      * @param deltaY the y delta
      * @param fromX  arbitrary x position
@@ -280,99 +458,37 @@ public abstract class Entity {
      * @return whether collides
      */
     public boolean collidesYfrom(double deltaY, double fromX, double fromY) {
-        double tempX = this.x;
-        double tempY = this.y;
-        this.x = fromX;
-        this.y = fromY;
-        boolean result = collidesY(deltaY);
-        this.x = tempX;
-        this.y = tempY;
-        return result;
+        return parent.getCollisionWorld().collides(fromX, fromY, getWidth(), getHeight(), 0, deltaY, getTerrainMask(), getCollisionMask(), this);
     }
 
     /**
-     * Gets whether the specified x delta will cause a collision on the left.
+     * Moves this Entity by the specified amounts, stopping at the first blocked tile in the way and then sliding along
+     * it with whatever movement is left over.
      *
      * @param deltaX the x delta
-     * @return whether a collision would occur on the left
-     */
-    private boolean collidesLeft(double deltaX) {
-        // If entity is smaller than tile we can just check to see if each corner collides instead of all points along the edge.
-        if (getHeight() <= parent.getTileHeight()) {
-            return isTileBlocked((int) Math.floor(x + deltaX), (int) y) || isTileBlocked((int) Math.floor(x + deltaX), (int) y + getHeight());
-        } else {
-            for (int i = (int) y; i < y + getHeight(); i++) {
-                if (isTileBlocked((int) Math.floor(x + deltaX), i)) {
-                    return true;
-                }
-            }
-
-            return false;
-        }
-    }
-
-    /**
-     * Gets whether the specified x delta will cause a collision on the right.
-     *
-     * @param deltaX the x delta
-     * @return whether a collision would occur on the right
-     */
-    private boolean collidesRight(double deltaX) {
-        // If entity is smaller than tile we can just check to see if each corner collides instead of all points along the edge.
-        if (getHeight() <= parent.getTileHeight()) {
-            return isTileBlocked((int) Math.floor(x + getWidth() + deltaX), (int) y) || isTileBlocked((int) Math.floor(x + getWidth() + deltaX), (int) y + getHeight());
-        } else {
-            for (int i = (int) y; i < y + getHeight(); i++) {
-                if (isTileBlocked((int) Math.ceil(x + getWidth() - 1 + deltaX), i)) {
-                    return true;
-                }
-            }
-
-            return false;
-        }
-    }
-
-    /**
-     * Gets whether the specified y delta will cause a collision on the bottom.
-     *
      * @param deltaY the y delta
-     * @return whether a collision would occur on the bottom
      */
-    private boolean collidesBottom(double deltaY) {
-        // If entity is smaller than tile we can just check to see if each corner collides instead of all points along the edge.
-        if (getWidth() <= parent.getTileWidth()) {
-            return isTileBlocked((int) x, (int) Math.floor(y + deltaY)) || isTileBlocked((int) x + getWidth(), (int) Math.floor(y + deltaY));
-        } else {
-            for (int i = (int) x; i < x + getWidth(); i++) {
-                if (isTileBlocked(i, (int) Math.floor(y + deltaY))) {
-                    return true;
-                }
+    protected void move(double deltaX, double deltaY) {
+        CompiledMap map = parent.getCompiledMap();
+
+        if (map.sweep(x, y, getWidth(), getHeight(), deltaX, deltaY, getTerrainMask(), sweep)) {
+            double remaining = 1 - sweep.time;
+            x = sweep.x;
+            y = sweep.y;
+
+            // Drop the part of the movement going into the tile and slide with the rest.
+            deltaX = sweep.normalX != 0 ? 0 : deltaX * remaining;
+            deltaY = sweep.normalY != 0 ? 0 : deltaY * remaining;
+
+            if (map.sweep(x, y, getWidth(), getHeight(), deltaX, deltaY, getTerrainMask(), sweep)) {
+                x = sweep.x;
+                y = sweep.y;
+                return;
             }
-
-            return false;
         }
-    }
-
 
-    /**
-     * Gets whether the specified y delta will cause a collision on the top.
-     *
-     * @param deltaY the y delta
-     * @return whether a collision would occur on the top
-     */
-    private boolean collidesTop(double deltaY) {
-        // If entity is smaller than tile we can just check to see if each corner collides instead of all points along the edge.
-        if (getWidth() <= parent.getTileWidth()) {
-            return isTileBlocked((int) x, (int) Math.floor(y + getHeight() + deltaY)) || isTileBlocked((int) x + getWidth(), (int) Math.floor(y + getHeight() + deltaY));
-        } else {
-            for (int i = (int) x; i < x + getWidth(); i++) {
-                if (isTileBlocked(i, (int) Math.ceil(y + getHeight() - 1 + deltaY))) {
-                    return true;
-                }
-            }
-
-            return false;
-        }
+        x += deltaX;
+        y += deltaY;
     }
 
     /**
@@ -384,18 +500,28 @@ public abstract class Entity {
         double deltaX = velocityX * delta;
         double deltaY = velocityY * delta;
 
-        if (collidesX(deltaX)) {
-            deltaX = 0;
-        }
+        if (ignoresCollisions()) {
+            x += deltaX;
+            y += deltaY;
+        } else {
+            // Other characters block movement along an axis entirely.
+            if (collidesCharacter(x + deltaX, y)) {
+                deltaX = 0;
+            }
 
-        if (collidesY(deltaY)) {
-            deltaY = 0;
-        }
+            if (collidesCharacter(x, y + deltaY)) {
+                deltaY = 0;
+            }
 
-        x += deltaX;
-        y += deltaY;
+            move(deltaX, deltaY);
+        }
 
         checkBounds();
+
+        // Keep the spatial index up to date with our new position.
+        if (grid != null) {
+            grid.update(this);
+        }
     }
 
     /**
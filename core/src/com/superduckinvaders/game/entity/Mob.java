@@ -2,6 +2,7 @@ package com.superduckinvaders.game.entity;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.ai.AI;
 import com.superduckinvaders.game.ai.DummyAI;
@@ -18,6 +19,33 @@ public class Mob extends Character {
      */
     private static final double RANGED_CHANGE = 0.01;
 
+    /**
+     * How close other mobs must be before this Mob starts to move away from them, in pixels.
+     */
+    private static final int SEPARATION_RADIUS = 32;
+
+    /**
+     * How much further than the separation radius to look when building the neighbour list, in pixels. A mob rebuilds
+     * its list once it has moved more than a quarter of this distance, and also makes the mobs around it rebuild theirs,
+     * so no list can miss a mob that has come within the separation radius since it was built.
+     */
+    private static final int NEIGHBOUR_SKIN = 24;
+
+    /**
+     * The fastest this Mob is pushed away from its neighbours, as a fraction of its speed.
+     */
+    private static final double SEPARATION_STRENGTH = 0.5;
+
+    /**
+     * How often a Mob too far from the player to be updated every frame moves, in seconds.
+     */
+    private static final float DISTANT_UPDATE_RATE = 1;
+
+    /**
+     * Reused to hold the results of neighbour queries.
+     */
+    private static final Array<Entity> nearbyCharacters = new Array<Entity>();
+
     /**
      * The texture set to use for this Mob.
      */
@@ -53,6 +81,33 @@ public class Mob extends Character {
      */
     private double targetX, targetY;
 
+    /**
+     * The mobs that were within the separation radius plus the skin when the neighbour list was last built.
+     */
+    private final Array<Mob> neighbours = new Array<Mob>(false, 8);
+
+    /**
+     * Where this Mob was when it last rebuilt its neighbour list because it had moved. Starts infinitely far away, so the
+     * first build also tells the mobs already nearby about this one.
+     */
+    private double neighboursX = Double.POSITIVE_INFINITY, neighboursY = Double.POSITIVE_INFINITY;
+
+    /**
+     * Whether the neighbour list needs rebuilding because a mob nearby has moved (or it has never been built).
+     */
+    private boolean neighboursStale = true;
+
+    /**
+     * The velocity added this frame to move away from neighbouring mobs.
+     */
+    private double separationX, separationY;
+
+    /**
+     * How long since this Mob last moved while far from the player, started at a random point so that distant mobs
+     * don't all move on the same frame.
+     */
+    private float distantTimer = MathUtils.random(DISTANT_UPDATE_RATE);
+
     /**
      * Constructor for a Mob character.
      *
@@ -70,6 +125,7 @@ public class Mob extends Character {
         super(parent, x, y, health);
         this.textureSet = textureSet;
         this.walkSpeed = speed;
+        this.speed = speed;
         this.ai = ai;
         this.boss = boss;
 
@@ -99,6 +155,14 @@ public class Mob extends Character {
 
     }
 
+    /**
+     * gets the MOB category
+     */
+    @Override
+    public int getCategory() {
+        return MOB;
+    }
+
     /**
      * gets texture width
      */
@@ -126,6 +190,31 @@ public class Mob extends Character {
         targetY = y;
     }
 
+    /**
+     * Gets how fast this Mob is moving at the moment.
+     *
+     * @return the speed of this Mob in pixels per second
+     */
+    public int getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Updates this Mob while it is too far from the player to be updated every frame. Every DISTANT_UPDATE_RATE
+     * seconds, lets the AI move it a whole second's worth at once, skipping animation, attacks and collisions with
+     * other characters.
+     *
+     * @param delta time since the previous update
+     */
+    public void updateDistant(float delta) {
+        distantTimer += delta;
+
+        if (distantTimer >= DISTANT_UPDATE_RATE) {
+            ai.updateDistant(this, distantTimer);
+            distantTimer = 0;
+        }
+    }
+
     /**
      * Updates mob
      */
@@ -148,8 +237,11 @@ public class Mob extends Character {
         }
 
         // If mob is ranged, fire projectile with given probability.
-        // Mobs can't fire in water.
-        if (random < RANGED_CHANGE && ranged && !this.isSwimming) {
+        // Mobs can't fire in water, and don't waste shots on walls between them and the target. The sight line runs
+        // centre to centre, so a target half hidden by a corner is judged the same whichever side it is on.
+        Player player = parent.getPlayer();
+        if (random < RANGED_CHANGE && ranged && !this.isSwimming
+                && parent.getLineOfSight().canSee(x + getWidth() / 2, y + getHeight() / 2, targetX + player.getWidth() / 2, targetY + player.getHeight() / 2)) {
             fireAt(targetX, targetY, 300, 1);
         }
 
@@ -181,7 +273,108 @@ public class Mob extends Character {
             }
         }
 
+        // Push away from nearby mobs for this frame only, so the AI's chosen velocity is left alone.
+        updateSeparation();
+        velocityX += separationX;
+        velocityY += separationY;
+
         super.update(delta);
+
+        velocityX -= separationX;
+        velocityY -= separationY;
+    }
+
+    /**
+     * Rebuilds the neighbour list if this Mob has moved more than a quarter of the skin distance since it last did so
+     * for moving, or if a mob nearby has. When this Mob has moved, the mobs it finds are told to rebuild their lists too,
+     * so that a mob standing still still notices others walking up to it. Between them, two mobs can then move at most
+     * the skin distance closer together before one of them rebuilds. Mobs that aren't in the Round's character grid
+     * (e.g. ones that haven't been added yet) have no neighbours.
+     */
+    private void updateNeighbours() {
+        if (grid == null) {
+            neighbours.clear();
+            return;
+        }
+
+        double skin = NEIGHBOUR_SKIN / 4.0;
+        boolean moved = distanceSquaredTo(neighboursX, neighboursY) > skin * skin;
+
+        if (!moved && !neighboursStale) {
+            return;
+        }
+
+        neighbours.clear();
+        parent.findCharactersNear(x, y, SEPARATION_RADIUS + NEIGHBOUR_SKIN, -1, 0, this, nearbyCharacters);
+
+        for (int i = 0; i < nearbyCharacters.size; i++) {
+            if ((nearbyCharacters.get(i).getCategory() & MOB) != 0) {
+                Mob neighbour = (Mob) nearbyCharacters.get(i);
+                neighbours.add(neighbour);
+
+                if (moved) {
+                    neighbour.neighboursStale = true;
+                }
+            }
+        }
+
+        nearbyCharacters.clear();
+        neighboursStale = false;
+
+        if (moved) {
+            neighboursX = x;
+            neighboursY = y;
+        }
+    }
+
+    /**
+     * Works out how fast this Mob should move away from its neighbours this frame. Closer neighbours push harder, and
+     * the total push is capped at a fraction of this Mob's speed so it can still reach the player.
+     */
+    private void updateSeparation() {
+        updateNeighbours();
+
+        double pushX = 0, pushY = 0;
+
+        for (int i = 0; i < neighbours.size; i++) {
+            Mob neighbour = neighbours.get(i);
+
+            if (neighbour.isRemoved()) {
+                continue;
+            }
+
+            double deltaX = x - neighbour.getX(), deltaY = y - neighbour.getY();
+            double distanceSquared = deltaX * deltaX + deltaY * deltaY;
+
+            if (distanceSquared >= SEPARATION_RADIUS * SEPARATION_RADIUS) {
+                continue;
+            }
+
+            double distance = Math.sqrt(distanceSquared);
+
+            // Mobs on exactly the same spot are pushed apart in a random direction.
+            if (distance == 0) {
+                float angle = MathUtils.random(MathUtils.PI2);
+                deltaX = MathUtils.cos(angle);
+                deltaY = MathUtils.sin(angle);
+                distance = 1;
+            }
+
+            double weight = (SEPARATION_RADIUS - distance) / SEPARATION_RADIUS;
+            pushX += deltaX / distance * weight;
+            pushY += deltaY / distance * weight;
+        }
+
+        double maxPush = walkSpeed * SEPARATION_STRENGTH;
+        double magnitude = Math.sqrt(pushX * pushX + pushY * pushY);
+
+        if (magnitude > 1) {
+            pushX /= magnitude;
+            pushY /= magnitude;
+        }
+
+        separationX = pushX * maxPush;
+        separationY = pushY * maxPush;
     }
 
     /**
@@ -218,7 +411,7 @@ public class Mob extends Character {
         }
 
 
-        spriteBatch.draw(textureSet.getTexture(facing, stateTime), (int) x, (int) y);
+        spriteBatch.draw(textureSet.getTexture(facing, stateTime), (int) getRenderX(), (int) getRenderY());
     }
 
     /**
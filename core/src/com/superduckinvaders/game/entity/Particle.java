@@ -2,12 +2,14 @@ package com.superduckinvaders.game.entity;
 
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Pool;
 import com.superduckinvaders.game.Round;
 
 /**
- * Represents a particle effect using an Animation.
+ * Represents a particle effect using an Animation. Particles are pooled by their Round, so one can be shown again after
+ * it has been removed.
  */
-public class Particle extends Entity {
+public class Particle extends Entity implements Pool.Poolable {
 
     /**
      * How long this Particle will remain on the screen.
@@ -29,12 +31,44 @@ public class Particle extends Entity {
      * @param animation the animation to use for the particle effect
      */
     public Particle(Round parent, double x, double y, double duration, Animation animation) {
-        super(parent, x, y);
+        super(parent);
+        show(x, y, duration, animation);
+    }
 
+    /**
+     * Initialises this Particle without showing it. Used by the Round's particle pool.
+     *
+     * @param parent the round this Particle belongs to
+     */
+    public Particle(Round parent) {
+        super(parent);
+    }
+
+    /**
+     * Shows this Particle's animation at a position.
+     *
+     * @param x         the x coordinate
+     * @param y         the y coordinate
+     * @param duration  how long the particle effect should last for, in seconds
+     * @param animation the animation to use for the particle effect
+     */
+    public void show(double x, double y, double duration, Animation animation) {
+        this.x = this.previousX = x;
+        this.y = this.previousY = y;
         this.initialDuration = this.duration = duration;
         this.animation = animation;
     }
 
+    /**
+     * Clears this Particle so that it can be shown again.
+     */
+    @Override
+    public void reset() {
+        resetEntity();
+        initialDuration = duration = 0;
+        animation = null;
+    }
+
     /**
      * Updates the state of this Particle.
      *
@@ -73,6 +107,6 @@ public class Particle extends Entity {
      */
     @Override
     public void render(SpriteBatch spriteBatch) {
-        spriteBatch.draw(animation.getKeyFrame((float) (initialDuration - duration)), (int) x, (int) y);
+        spriteBatch.draw(animation.getKeyFrame((float) (initialDuration - duration)), (int) getRenderX(), (int) getRenderY());
     }
 }
\ No newline at end of file
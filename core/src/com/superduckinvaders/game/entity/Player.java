@@ -297,11 +297,6 @@ public class Player extends Character {
             velocityY *= PLAYER_FLIGHT_SPEED_MULTIPLIER;
         }
 
-        // Press tab to toggle minimap.
-        if (Gdx.input.isKeyJustPressed(Input.Keys.TAB)) {
-            minimapOn = !minimapOn;
-        }
-
         // Only allow movement via keys if not flying.
         if (!isFlying()) {
             // Calculate speed at which to move the player.
@@ -360,35 +355,65 @@ public class Player extends Character {
     }
 
     /**
-     * Gets whether the specified x delta will cause a collision on the left or right, taking the noclip cheat into account.
+     * Gets which kind of entity the Player is, including whether they are currently flying.
+     *
+     * @return the PLAYER category, plus FLYING while flying
+     */
+    @Override
+    public int getCategory() {
+        return isFlying() ? PLAYER | FLYING : PLAYER;
+    }
+
+    /**
+     * Gets which categories of entity block the Player, taking the noclip cheat into account.
+     *
+     * @return the categories that block the Player, or 0 while noclip is on
+     */
+    @Override
+    public int getCollisionMask() {
+        return parent.getCheatProcessor().isNoclipActive() ? 0 : super.getCollisionMask();
+    }
+
+    /**
+     * Gets which tile flags block the Player, taking the noclip cheat into account.
+     *
+     * @return the tile flags that block the Player, or 0 while noclip is on
+     */
+    @Override
+    public int getTerrainMask() {
+        return parent.getCheatProcessor().isNoclipActive() ? 0 : super.getTerrainMask();
+    }
+
+    /**
+     * Gets whether the Player should currently move without colliding with anything.
+     *
+     * @return true if we are already colliding with something (i.e. stuck)
+     */
+    @Override
+    protected boolean ignoresCollisions() {
+        return super.collidesX(0);
+    }
+
+    /**
+     * Gets whether the specified x delta will cause a collision on the left or right, ignoring collisions while stuck.
      *
      * @param deltaX the x delta
      * @return whether a collision would occur on the left or right
      */
     @Override
     public boolean collidesX(double deltaX) {
-        // If the noclip cheat is on, or we are already colliding with something (i.e. stuck)
-        if (parent.getCheatProcessor().isNoclipActive() || super.collidesX(0)) {
-            return false;
-        }
-
-        return super.collidesX(deltaX);
+        return !ignoresCollisions() && super.collidesX(deltaX);
     }
 
     /**
-     * Gets whether the specified y delta will cause a collision on the bottom or top, taking the noclip cheat into account.
+     * Gets whether the specified y delta will cause a collision on the bottom or top, ignoring collisions while stuck.
      *
      * @param deltaY the y delta
      * @return whether a collision would occur on the bottom or top
      */
     @Override
     public boolean collidesY(double deltaY) {
-        // If the noclip cheat is on, or we are already colliding with something (i.e. stuck)
-        if (parent.getCheatProcessor().isNoclipActive() || super.collidesY(0)) {
-            return false;
-        }
-
-        return super.collidesY(deltaY);
+        return !ignoresCollisions() && super.collidesY(deltaY);
     }
 
     /**
@@ -410,7 +435,7 @@ public class Player extends Character {
             textureSet = isDemented() ? Assets.playerNormalInv : Assets.playerNormal;
         }
 
-        spriteBatch.draw(textureSet.getTexture(facing, stateTime), (int) x, (int) y);
+        spriteBatch.draw(textureSet.getTexture(facing, stateTime), (int) getRenderX(), (int) getRenderY());
     }
 
     /**
@@ -0,0 +1,323 @@
+package com.superduckinvaders.game.entity;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.superduckinvaders.game.DuckGame;
+import com.superduckinvaders.game.assets.Assets;
+import com.superduckinvaders.game.map.CompiledMap;
+import com.superduckinvaders.game.map.SweepResult;
+
+import java.util.Arrays;
+
+/**
+ * Every projectile in a Round. Projectiles never push or slide against anything, so rather than being entities they are
+ * kept as parallel arrays of primitives, one entry per projectile, and updated together: first a single pass moves them
+ * all, then each one's path is checked against the map and the characters. Dead projectiles are removed by moving the
+ * last one into their place, so the arrays stay densely packed and nothing is allocated once they have grown to fit.
+ * Owners are kept by id rather than by reference, so a projectile never keeps the entity that fired it alive.
+ */
+public final class ProjectileSystem {
+
+    /**
+     * How long a projectile flies for before it disappears, in seconds.
+     */
+    public static final float LIFETIME = 10;
+
+    /**
+     * Which tile flags in the compiled map stop projectiles.
+     */
+    private static final int TERRAIN_MASK = CompiledMap.BLOCKED | CompiledMap.OBSTACLE;
+
+    /**
+     * The map projectiles fly over.
+     */
+    private final CompiledMap map;
+
+    /**
+     * The characters projectiles can hit.
+     */
+    private final SpatialGrid characters;
+
+    /**
+     * The size of every projectile in pixels.
+     */
+    private final int width, height;
+
+    /**
+     * Reused to hold the result of sweeping a projectile through the map.
+     */
+    private final SweepResult sweep = new SweepResult();
+
+    /**
+     * The position of each projectile's bottom left corner.
+     */
+    private float[] xs, ys;
+
+    /**
+     * The position of each projectile at the start of the last update, used to draw it smoothly between updates.
+     */
+    private float[] previousXs, previousYs;
+
+    /**
+     * The velocity of each projectile, in pixels per second.
+     */
+    private float[] velocityXs, velocityYs;
+
+    /**
+     * How far each projectile is moving this update.
+     */
+    private float[] deltaXs, deltaYs;
+
+    /**
+     * How long each projectile has left to fly, in seconds.
+     */
+    private float[] lifetimes;
+
+    /**
+     * How much damage each projectile does to what it hits.
+     */
+    private int[] damages;
+
+    /**
+     * The category bits of each projectile's owner when it was fired, or 0 if it has no owner.
+     */
+    private int[] ownerCategories;
+
+    /**
+     * The id of the entity that fired each projectile (which it can't hit), or 0 if it has no owner.
+     */
+    private int[] ownerIds;
+
+    /**
+     * How many projectiles there are, and the most there have ever been at once.
+     */
+    private int size = 0, peakSize = 0;
+
+    /**
+     * Initialises this ProjectileSystem.
+     *
+     * @param map             the map projectiles fly over
+     * @param characters      the characters projectiles can hit
+     * @param width           the width of every projectile
+     * @param height          the height of every projectile
+     * @param initialCapacity how many projectiles to make room for at first
+     */
+    public ProjectileSystem(CompiledMap map, SpatialGrid characters, int width, int height, int initialCapacity) {
+        this.map = map;
+        this.characters = characters;
+        this.width = width;
+        this.height = height;
+
+        initialCapacity = Math.max(1, initialCapacity);
+        xs = new float[initialCapacity];
+        ys = new float[initialCapacity];
+        previousXs = new float[initialCapacity];
+        previousYs = new float[initialCapacity];
+        velocityXs = new float[initialCapacity];
+        velocityYs = new float[initialCapacity];
+        deltaXs = new float[initialCapacity];
+        deltaYs = new float[initialCapacity];
+        lifetimes = new float[initialCapacity];
+        damages = new int[initialCapacity];
+        ownerCategories = new int[initialCapacity];
+        ownerIds = new int[initialCapacity];
+    }
+
+    /**
+     * Fires a new projectile.
+     *
+     * @param x               the initial x coordinate
+     * @param y               the initial y coordinate
+     * @param targetX         the target x coordinate
+     * @param targetY         the target y coordinate
+     * @param speed           how fast the projectile moves
+     * @param velocityXOffset the offset to the initial X velocity
+     * @param velocityYOffset the offset to the initial Y velocity
+     * @param damage          how much damage the projectile deals
+     * @param owner           the owner of the projectile (i.e. the one who fired it), or null
+     */
+    public void fire(double x, double y, double targetX, double targetY, double speed, double velocityXOffset, double velocityYOffset, int damage, Entity owner) {
+        if (size == xs.length) {
+            grow();
+        }
+
+        // Angle between initial position and target.
+        double angle = Math.atan2(targetY - y, targetX - x);
+
+        double velocityX = Math.round(Math.cos(angle) * speed);
+        double velocityY = Math.round(Math.sin(angle) * speed);
+
+        // Projectile should only move faster if we're moving in the same direction.
+        velocityX += (Math.signum(velocityX) == Math.signum(velocityXOffset) ? velocityXOffset : 0);
+        velocityY += (Math.signum(velocityY) == Math.signum(velocityYOffset) ? velocityYOffset : 0);
+
+        xs[size] = previousXs[size] = (float) x;
+        ys[size] = previousYs[size] = (float) y;
+        velocityXs[size] = (float) velocityX;
+        velocityYs[size] = (float) velocityY;
+        lifetimes[size] = LIFETIME;
+        damages[size] = damage;
+        ownerCategories[size] = owner == null ? 0 : owner.getCategory();
+        ownerIds[size] = owner == null ? 0 : owner.getId();
+
+        size++;
+        peakSize = Math.max(peakSize, size);
+    }
+
+    /**
+     * Updates every projectile. Projectiles that hit a character damage it, and projectiles that hit a character, hit a
+     * blocked tile, leave the map or run out of time are removed.
+     *
+     * @param delta how much time has passed since the last update
+     */
+    public void update(float delta) {
+        // Work out how far everything moves in one pass with no branches, which the JIT can vectorise.
+        for (int i = 0; i < size; i++) {
+            previousXs[i] = xs[i];
+            previousYs[i] = ys[i];
+            deltaXs[i] = velocityXs[i] * delta;
+            deltaYs[i] = velocityYs[i] * delta;
+            lifetimes[i] -= delta;
+        }
+
+        int mapWidth = map.getMapWidth(), mapHeight = map.getMapHeight();
+
+        for (int i = 0; i < size; ) {
+            float x = xs[i], y = ys[i], deltaX = deltaXs[i], deltaY = deltaYs[i];
+
+            // Projectiles don't slide along walls, so only travel as far as the first blocked tile in the way.
+            boolean hitTile = map.sweep(x, y, width, height, deltaX, deltaY, TERRAIN_MASK, sweep);
+            if (hitTile) {
+                deltaX *= sweep.time;
+                deltaY *= sweep.time;
+            }
+
+            // Find the first character (other than the owner) in the way.
+            Entity hit = characters.findFirstHit(x, y, deltaX, deltaY, width, height, ownerIds[i], Entity.CHARACTERS);
+
+            x += deltaX;
+            y += deltaY;
+            xs[i] = x;
+            ys[i] = y;
+
+            if (hit != null) {
+                ((Character) hit).damage(damages[i]);
+                //makes sure only player bullets play the death noise so enemies don't hurt each other
+                if ((ownerCategories[i] & Entity.PLAYER) != 0) {
+                    DuckGame.playSoundEffect(Assets.enemyDeath, 1);
+                }
+
+                remove(i);
+            } else if (hitTile || lifetimes[i] <= 0 || x < 0 || x + width > mapWidth || y < 0 || y + height > mapHeight) {
+                // Remove the projectile when it hits a blocked tile, leaves the map or runs out of time.
+                remove(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Renders every projectile. All of them share one texture, so the sprite batch draws them in as few calls as it can.
+     *
+     * @param spriteBatch   the sprite batch on which to render
+     * @param texture       the texture to draw each projectile with
+     * @param interpolation how far between the start of the last update and now to draw each projectile, from 0 to 1
+     */
+    public void render(SpriteBatch spriteBatch, TextureRegion texture, float interpolation) {
+        for (int i = 0; i < size; i++) {
+            float x = previousXs[i] + (xs[i] - previousXs[i]) * interpolation;
+            float y = previousYs[i] + (ys[i] - previousYs[i]) * interpolation;
+
+            spriteBatch.draw(texture, (int) x, (int) y);
+        }
+    }
+
+    /**
+     * Removes every projectile.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gets how many projectiles there are.
+     *
+     * @return the number of projectiles in flight
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the most projectiles there have ever been at once.
+     *
+     * @return the high-water mark of projectiles in flight
+     */
+    public int getPeakSize() {
+        return peakSize;
+    }
+
+    /**
+     * Gets the x coordinate of a projectile.
+     *
+     * @param index the index of the projectile, from 0 to size - 1
+     * @return the x coordinate of the projectile's bottom left corner
+     */
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    /**
+     * Gets the y coordinate of a projectile.
+     *
+     * @param index the index of the projectile, from 0 to size - 1
+     * @return the y coordinate of the projectile's bottom left corner
+     */
+    public float getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * Removes a projectile by moving the last one into its place. The order of projectiles doesn't matter, so this
+     * keeps the arrays packed without shifting anything.
+     *
+     * @param index the index of the projectile to remove
+     */
+    private void remove(int index) {
+        int last = --size;
+
+        xs[index] = xs[last];
+        ys[index] = ys[last];
+        previousXs[index] = previousXs[last];
+        previousYs[index] = previousYs[last];
+        velocityXs[index] = velocityXs[last];
+        velocityYs[index] = velocityYs[last];
+        deltaXs[index] = deltaXs[last];
+        deltaYs[index] = deltaYs[last];
+        lifetimes[index] = lifetimes[last];
+        damages[index] = damages[last];
+        ownerCategories[index] = ownerCategories[last];
+        ownerIds[index] = ownerIds[last];
+    }
+
+    /**
+     * Doubles the room for projectiles.
+     */
+    private void grow() {
+        int capacity = xs.length * 2;
+
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        previousXs = Arrays.copyOf(previousXs, capacity);
+        previousYs = Arrays.copyOf(previousYs, capacity);
+        velocityXs = Arrays.copyOf(velocityXs, capacity);
+        velocityYs = Arrays.copyOf(velocityYs, capacity);
+        deltaXs = Arrays.copyOf(deltaXs, capacity);
+        deltaYs = Arrays.copyOf(deltaYs, capacity);
+        lifetimes = Arrays.copyOf(lifetimes, capacity);
+        damages = Arrays.copyOf(damages, capacity);
+        ownerCategories = Arrays.copyOf(ownerCategories, capacity);
+        ownerIds = Arrays.copyOf(ownerIds, capacity);
+    }
+}
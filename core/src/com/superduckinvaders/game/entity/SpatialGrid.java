@@ -0,0 +1,366 @@
+package com.superduckinvaders.game.entity;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A uniform grid of buckets used to find entities near a point without scanning every entity in the Round.
+ * Each entity is stored in the bucket containing its bottom left corner, and queries are widened by the size of the
+ * largest entity added so that entities overlapping into neighbouring buckets are still found.
+ */
+public final class SpatialGrid {
+
+    /**
+     * The size of each bucket in pixels (usually the size of one map tile).
+     */
+    private final int cellWidth, cellHeight;
+
+    /**
+     * How many buckets there are in each direction.
+     */
+    private final int columns, rows;
+
+    /**
+     * The buckets, indexed by column + row * columns. Buckets are only allocated once something is added to them.
+     */
+    private final Array<Entity>[] cells;
+
+    /**
+     * The size of the largest entity added to this SpatialGrid.
+     */
+    private int maxWidth = 0, maxHeight = 0;
+
+    /**
+     * The squared distances of the entities in the last nearest query, kept in the same order as the results.
+     */
+    private double[] distances = new double[16];
+
+    /**
+     * Initialises this SpatialGrid.
+     *
+     * @param columns    how many buckets to use horizontally
+     * @param rows       how many buckets to use vertically
+     * @param cellWidth  the width of each bucket in pixels
+     * @param cellHeight the height of each bucket in pixels
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SpatialGrid(int columns, int rows, int cellWidth, int cellHeight) {
+        this.columns = Math.max(1, columns);
+        this.rows = Math.max(1, rows);
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+
+        cells = new Array[this.columns * this.rows];
+    }
+
+    /**
+     * Adds an entity to this SpatialGrid. Does nothing if the entity has already been added.
+     *
+     * @param entity the entity to add
+     */
+    public void add(Entity entity) {
+        if (entity.grid != null) {
+            return;
+        }
+
+        maxWidth = Math.max(maxWidth, entity.getWidth());
+        maxHeight = Math.max(maxHeight, entity.getHeight());
+
+        entity.grid = this;
+        entity.gridCell = cellIndex(entity.getX(), entity.getY());
+        bucket(entity.gridCell).add(entity);
+    }
+
+    /**
+     * Removes an entity from this SpatialGrid. Does nothing if the entity isn't in this SpatialGrid.
+     *
+     * @param entity the entity to remove
+     */
+    public void remove(Entity entity) {
+        if (entity.grid != this) {
+            return;
+        }
+
+        cells[entity.gridCell].removeValue(entity, true);
+        entity.grid = null;
+        entity.gridCell = -1;
+    }
+
+    /**
+     * Moves an entity to the correct bucket after its position has changed.
+     *
+     * @param entity the entity that has moved
+     */
+    public void update(Entity entity) {
+        if (entity.grid != this) {
+            return;
+        }
+
+        int cell = cellIndex(entity.getX(), entity.getY());
+
+        if (cell != entity.gridCell) {
+            cells[entity.gridCell].removeValue(entity, true);
+            bucket(cell).add(entity);
+            entity.gridCell = cell;
+        }
+    }
+
+    /**
+     * Finds an entity in this SpatialGrid that intersects the specified rectangle.
+     *
+     * @param x      the x coordinate of the rectangle's bottom left corner
+     * @param y      the y coordinate of the rectangle's bottom left corner
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @param ignore an entity to leave out of the search (usually the one asking), or null
+     * @param mask   only find entities with one of these category bits (see the category constants in Entity)
+     * @return an intersecting entity, or null if there isn't one
+     */
+    public Entity findIntersecting(double x, double y, int width, int height, Entity ignore, int mask) {
+        int minColumn = column(x - maxWidth), maxColumn = column(x + width);
+        int minRow = row(y - maxHeight), maxRow = row(y + height);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Array<Entity> bucket = cells[column + row * columns];
+
+                if (bucket == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < bucket.size; i++) {
+                    Entity entity = bucket.get(i);
+
+                    if (entity != ignore && (entity.getCategory() & mask) != 0 && entity.intersects(x, y, width, height)) {
+                        return entity;
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds the entities in this SpatialGrid whose bottom left corners are within a radius (and optionally a facing
+     * cone) of the specified point, nearest first. Only the buckets covering the circle are searched and nothing is
+     * allocated once the results array has grown large enough.
+     *
+     * @param x       the x coordinate of the centre of the search
+     * @param y       the y coordinate of the centre of the search
+     * @param radius  how far from the centre to search, in pixels
+     * @param facing  only find entities in this direction from the centre (one of the FACING_ constants in
+     *                TextureSet), or -1 to search in all directions
+     * @param limit   the maximum number of entities to find (k), or 0 for no limit
+     * @param ignore  an entity to leave out of the search (usually the one asking), or null
+     * @param results the array to clear and fill with the entities found, ordered by increasing distance
+     * @return how many entities were found
+     */
+    public int findNearest(double x, double y, double radius, int facing, int limit, Entity ignore, Array<Entity> results) {
+        results.clear();
+
+        double radiusSquared = radius * radius;
+        int minColumn = column(x - radius), maxColumn = column(x + radius);
+        int minRow = row(y - radius), maxRow = row(y + radius);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Array<Entity> bucket = cells[column + row * columns];
+
+                if (bucket == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < bucket.size; i++) {
+                    Entity entity = bucket.get(i);
+                    double deltaX = entity.getX() - x, deltaY = entity.getY() - y;
+                    double distance = deltaX * deltaX + deltaY * deltaY;
+
+                    if (entity == ignore || distance > radiusSquared || (facing >= 0 && Entity.direction(deltaX, deltaY) != facing)) {
+                        continue;
+                    }
+
+                    insertNearest(entity, distance, limit, results);
+                }
+            }
+        }
+
+        return results.size;
+    }
+
+    /**
+     * Inserts an entity into the results of a nearest query, keeping them sorted by distance and within the limit.
+     *
+     * @param entity   the entity to insert
+     * @param distance the squared distance to the entity
+     * @param limit    the maximum number of results, or 0 for no limit
+     * @param results  the results so far
+     */
+    private void insertNearest(Entity entity, double distance, int limit, Array<Entity> results) {
+        int count = results.size;
+
+        if (limit > 0 && count == limit) {
+            // Full, so only keep the new entity if it is nearer than the furthest one we have.
+            if (distance >= distances[count - 1]) {
+                return;
+            }
+
+            count--;
+            results.pop();
+        }
+
+        if (count == distances.length) {
+            double[] grown = new double[count * 2];
+            System.arraycopy(distances, 0, grown, 0, count);
+            distances = grown;
+        }
+
+        // Shift further entities along to make room (ties keep the one found first in front).
+        int index = count;
+        results.add(entity);
+        while (index > 0 && distances[index - 1] > distance) {
+            distances[index] = distances[index - 1];
+            results.set(index, results.get(index - 1));
+            index--;
+        }
+
+        distances[index] = distance;
+        results.set(index, entity);
+    }
+
+    /**
+     * Finds the first entity in this SpatialGrid hit by a rectangle moving in a straight line. Only the buckets covered
+     * by the swept rectangle are searched. Hits are ordered by the time along the movement at which they happen, and
+     * ties go to the entity found first in bucket order so the result is deterministic.
+     *
+     * @param x      the x coordinate of the rectangle's bottom left corner before moving
+     * @param y      the y coordinate of the rectangle's bottom left corner before moving
+     * @param deltaX how far the rectangle moves in the x direction
+     * @param deltaY how far the rectangle moves in the y direction
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @param ignoreId the id of an entity to leave out of the search (e.g. the owner of a projectile), or 0
+     * @param mask     only hit entities with one of these category bits (see the category constants in Entity)
+     * @return the first entity hit, or null if nothing is hit
+     */
+    public Entity findFirstHit(double x, double y, double deltaX, double deltaY, int width, int height, int ignoreId, int mask) {
+        double left = Math.min(x, x + deltaX), bottom = Math.min(y, y + deltaY);
+        int minColumn = column(left - maxWidth), maxColumn = column(Math.max(x, x + deltaX) + width);
+        int minRow = row(bottom - maxHeight), maxRow = row(Math.max(y, y + deltaY) + height);
+
+        Entity first = null;
+        double firstTime = Double.POSITIVE_INFINITY;
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                Array<Entity> bucket = cells[column + row * columns];
+
+                if (bucket == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < bucket.size; i++) {
+                    Entity entity = bucket.get(i);
+
+                    if (entity.getId() == ignoreId || (entity.getCategory() & mask) == 0) {
+                        continue;
+                    }
+
+                    double time = hitTime(x, y, deltaX, deltaY, width, height, entity);
+
+                    if (time < firstTime) {
+                        first = entity;
+                        firstTime = time;
+                    }
+                }
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * Gets the fraction of a movement at which a moving rectangle first intersects an entity.
+     *
+     * @param x      the x coordinate of the rectangle's bottom left corner before moving
+     * @param y      the y coordinate of the rectangle's bottom left corner before moving
+     * @param deltaX how far the rectangle moves in the x direction
+     * @param deltaY how far the rectangle moves in the y direction
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @param entity the entity to test against
+     * @return the time of the hit between 0 and 1, or positive infinity if there is no hit
+     */
+    private static double hitTime(double x, double y, double deltaX, double deltaY, int width, int height, Entity entity) {
+        double enter = 0, exit = 1;
+
+        // Clip the movement against the entity's extent on each axis in turn.
+        if (deltaX == 0) {
+            if (x >= entity.getX() + entity.getWidth() || x + width <= entity.getX()) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double near = ((deltaX > 0 ? entity.getX() - width : entity.getX() + entity.getWidth()) - x) / deltaX;
+            double far = ((deltaX > 0 ? entity.getX() + entity.getWidth() : entity.getX() - width) - x) / deltaX;
+            enter = Math.max(enter, near);
+            exit = Math.min(exit, far);
+        }
+
+        if (deltaY == 0) {
+            if (y >= entity.getY() + entity.getHeight() || y + height <= entity.getY()) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double near = ((deltaY > 0 ? entity.getY() - height : entity.getY() + entity.getHeight()) - y) / deltaY;
+            double far = ((deltaY > 0 ? entity.getY() + entity.getHeight() : entity.getY() - height) - y) / deltaY;
+            enter = Math.max(enter, near);
+            exit = Math.min(exit, far);
+        }
+
+        return enter < exit ? enter : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Gets the bucket at the specified index, creating it if necessary.
+     *
+     * @param index the index of the bucket
+     * @return the bucket
+     */
+    private Array<Entity> bucket(int index) {
+        if (cells[index] == null) {
+            cells[index] = new Array<Entity>(false, 4);
+        }
+
+        return cells[index];
+    }
+
+    /**
+     * Gets the index of the bucket containing the specified coordinates.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the index of the bucket
+     */
+    private int cellIndex(double x, double y) {
+        return column(x) + row(y) * columns;
+    }
+
+    /**
+     * Gets the bucket column containing the specified x coordinate, clamped to the grid.
+     *
+     * @param x the x coordinate
+     * @return the column
+     */
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellWidth)));
+    }
+
+    /**
+     * Gets the bucket row containing the specified y coordinate, clamped to the grid.
+     *
+     * @param y the y coordinate
+     * @return the row
+     */
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellHeight)));
+    }
+}
@@ -29,6 +29,14 @@ public class Item extends Entity {
         this.texture = texture;
     }
 
+    /**
+     * @return the ITEM category
+     */
+    @Override
+    public int getCategory() {
+        return ITEM;
+    }
+
     /**
      * @return the width of this Item
      */
@@ -62,7 +70,7 @@ public class Item extends Entity {
      */
     @Override
     public void render(SpriteBatch spriteBatch) {
-        spriteBatch.draw(texture, (int) x, (int) y);
+        spriteBatch.draw(texture, (int) getRenderX(), (int) getRenderY());
     }
 
 }
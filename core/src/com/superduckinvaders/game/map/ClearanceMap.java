@@ -0,0 +1,128 @@
+package com.superduckinvaders.game.map;
+
+/**
+ * The size of the largest clear square of tiles at each tile of a CompiledMap, with the tile as its bottom left corner.
+ * Built once per Round, after which whether a box of any size fits on a tile is a single array read, so differently
+ * sized things can share one grid instead of each needing their own.
+ */
+public final class ClearanceMap {
+
+    /**
+     * The largest clearance stored. Tiles with more room than this are treated as having exactly this much.
+     */
+    public static final int MAX_CLEARANCE = 127;
+
+    /**
+     * The size of the map in tiles.
+     */
+    private final int width, height;
+
+    /**
+     * The size of one tile in pixels.
+     */
+    private final int tileWidth, tileHeight;
+
+    /**
+     * The clearance of each tile, indexed by x + y * width.
+     */
+    private final byte[] clearance;
+
+    /**
+     * Builds the clearance map for the specified map. Tiles beyond the top and right edges of the map count as clear,
+     * the same as they do for CompiledMap.overlaps.
+     *
+     * @param map  the map to build the clearance map for
+     * @param mask the flags that count as blocking
+     */
+    public ClearanceMap(CompiledMap map, int mask) {
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.tileWidth = map.getTileWidth();
+        this.tileHeight = map.getTileHeight();
+        this.clearance = new byte[width * height];
+
+        // Each clear tile's square is one bigger than the smallest of the squares above, to the right and diagonally.
+        for (int tileY = height - 1; tileY >= 0; tileY--) {
+            for (int tileX = width - 1; tileX >= 0; tileX--) {
+                int size = 0;
+
+                if ((map.getFlags(tileX, tileY) & mask) == 0) {
+                    size = Math.min(MAX_CLEARANCE, 1 + Math.min(getStored(tileX + 1, tileY),
+                            Math.min(getStored(tileX, tileY + 1), getStored(tileX + 1, tileY + 1))));
+                }
+
+                clearance[tileX + tileY * width] = (byte) size;
+            }
+        }
+    }
+
+    /**
+     * Gets the stored clearance of a tile, counting tiles beyond the top and right edges as fully clear.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return the clearance of the tile
+     */
+    private int getStored(int tileX, int tileY) {
+        return tileX >= width || tileY >= height ? MAX_CLEARANCE : clearance[tileX + tileY * width];
+    }
+
+    /**
+     * Gets the width of the map in tiles.
+     *
+     * @return the width of the clearance map
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the map in tiles.
+     *
+     * @return the height of the clearance map
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the size of the largest clear square with the specified tile as its bottom left corner.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return the clearance in tiles, or 0 if the tile is blocked or outside the map
+     */
+    public int getClearance(int tileX, int tileY) {
+        if (tileX < 0 || tileX >= width || tileY < 0 || tileY >= height) {
+            return 0;
+        }
+
+        return clearance[tileX + tileY * width];
+    }
+
+    /**
+     * Gets whether a square of the specified size fits with the specified tile as its bottom left corner.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @param size  the size of the square in tiles
+     * @return true if the tile is on the map and the square fits
+     */
+    public boolean fits(int tileX, int tileY, int size) {
+        return getClearance(tileX, tileY) >= size;
+    }
+
+    /**
+     * Gets the size of the smallest square of tiles a box always fits in when its bottom left corner is at the bottom
+     * left corner of a tile.
+     *
+     * @param boxWidth  the width of the box in pixels
+     * @param boxHeight the height of the box in pixels
+     * @return the size of the square in tiles, at least 1
+     */
+    public int getBoxSize(int boxWidth, int boxHeight) {
+        int columns = (boxWidth + tileWidth - 1) / tileWidth, rows = (boxHeight + tileHeight - 1) / tileHeight;
+
+        return Math.max(1, Math.max(columns, rows));
+    }
+}
@@ -0,0 +1,358 @@
+package com.superduckinvaders.game.map;
+
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+
+/**
+ * A flattened copy of the parts of a TiledMap needed during gameplay. Built once per Round so that collision,
+ * swimming and AI code can look up a tile with a single array read instead of going through the map layers.
+ */
+public final class CompiledMap {
+
+    /**
+     * Flag set on tiles in the collision layer. Nothing can pass through these tiles.
+     */
+    public static final int BLOCKED = 1;
+
+    /**
+     * Flag set on tiles in the chosen obstacles layer. Only things that are flying can pass over these tiles.
+     */
+    public static final int OBSTACLE = 2;
+
+    /**
+     * Flag set on tiles in the water layer.
+     */
+    public static final int WATER = 4;
+
+    /**
+     * The size of the map in tiles.
+     */
+    private final int width, height;
+
+    /**
+     * The size of one tile in pixels.
+     */
+    private final int tileWidth, tileHeight;
+
+    /**
+     * The flags for each tile, indexed by x + y * width.
+     */
+    private final byte[] tiles;
+
+    /**
+     * Compiles the specified map.
+     *
+     * @param map            the map to compile
+     * @param obstaclesLayer the obstacles layer chosen for the Round, or null if there isn't one
+     */
+    public CompiledMap(TiledMap map, TiledMapTileLayer obstaclesLayer) {
+        TiledMapTileLayer baseLayer = (TiledMapTileLayer) map.getLayers().get("Base");
+
+        this.width = baseLayer.getWidth();
+        this.height = baseLayer.getHeight();
+        this.tileWidth = (int) baseLayer.getTileWidth();
+        this.tileHeight = (int) baseLayer.getTileHeight();
+        this.tiles = new byte[width * height];
+
+        addLayer((TiledMapTileLayer) map.getLayers().get("Collision"), BLOCKED);
+        addLayer(obstaclesLayer, OBSTACLE);
+        addLayer((TiledMapTileLayer) map.getLayers().get("Water"), WATER);
+    }
+
+    /**
+     * Sets the specified flag on every tile that has a cell in the specified layer.
+     *
+     * @param layer the layer to read, or null to do nothing
+     * @param flag  the flag to set
+     */
+    private void addLayer(TiledMapTileLayer layer, int flag) {
+        if (layer == null) {
+            return;
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (layer.getCell(x, y) != null) {
+                    tiles[x + y * width] |= flag;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the width of the map in tiles.
+     *
+     * @return the width of the map in tiles
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of the map in tiles.
+     *
+     * @return the height of the map in tiles
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the width of each tile.
+     *
+     * @return the width of one tile in pixels
+     */
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * Gets the height of each tile.
+     *
+     * @return the height of one tile in pixels
+     */
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    /**
+     * Gets the width of the map in pixels.
+     *
+     * @return the width of the map in pixels
+     */
+    public int getMapWidth() {
+        return width * tileWidth;
+    }
+
+    /**
+     * Gets the height of the map in pixels.
+     *
+     * @return the height of the map in pixels
+     */
+    public int getMapHeight() {
+        return height * tileHeight;
+    }
+
+    /**
+     * Gets the flags of the tile at the specified tile coordinates. Tiles outside the map have no flags.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return the flags of the tile (a combination of the BLOCKED, OBSTACLE and WATER constants)
+     */
+    public int getFlags(int tileX, int tileY) {
+        if (tileX < 0 || tileX >= width || tileY < 0 || tileY >= height) {
+            return 0;
+        }
+
+        return tiles[tileX + tileY * width];
+    }
+
+    /**
+     * Gets whether the tile at the specified tile coordinates blocks things that are walking.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return true if the tile is in the collision or obstacles layer
+     */
+    public boolean isBlocked(int tileX, int tileY) {
+        return (getFlags(tileX, tileY) & (BLOCKED | OBSTACLE)) != 0;
+    }
+
+    /**
+     * Gets whether the tile at the specified tile coordinates is an obstacle.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return true if the tile is in the obstacles layer
+     */
+    public boolean isObstacle(int tileX, int tileY) {
+        return (getFlags(tileX, tileY) & OBSTACLE) != 0;
+    }
+
+    /**
+     * Gets whether things that are flying can pass over the tile at the specified tile coordinates.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return true if the tile is not in the collision layer
+     */
+    public boolean isFlyable(int tileX, int tileY) {
+        return (getFlags(tileX, tileY) & BLOCKED) == 0;
+    }
+
+    /**
+     * Gets whether any tile under the specified box has one of the specified flags. The box covers the pixels from
+     * (x, y) up to but not including (x + width, y + height).
+     *
+     * @param x      the x coordinate of the box's bottom left corner
+     * @param y      the y coordinate of the box's bottom left corner
+     * @param width  the width of the box
+     * @param height the height of the box
+     * @param mask   the flags that count as blocking
+     * @return true if the box overlaps a blocking tile
+     */
+    public boolean overlaps(double x, double y, int width, int height, int mask) {
+        int maxColumn = lastTile(x + width, tileWidth), maxRow = lastTile(y + height, tileHeight);
+
+        for (int row = firstTile(y, tileHeight); row <= maxRow; row++) {
+            for (int column = firstTile(x, tileWidth); column <= maxColumn; column++) {
+                if ((getFlags(column, row) & mask) != 0) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Sweeps a box along a straight line through the tile grid and finds the first blocking tile it runs into.
+     * Walks only the columns and rows the box's leading edges cross, in the order they are crossed, so the cost
+     * depends on the distance moved in tiles rather than in pixels and fast movers can't pass through thin walls.
+     * Tiles the box already overlaps when it starts don't count, so something stuck in a wall can still move out.
+     *
+     * @param x      the x coordinate of the box's bottom left corner
+     * @param y      the y coordinate of the box's bottom left corner
+     * @param width  the width of the box
+     * @param height the height of the box
+     * @param deltaX how far the box moves in the x direction
+     * @param deltaY how far the box moves in the y direction
+     * @param mask   the flags that count as blocking
+     * @param result where to store the time of impact, contact position and normal if a tile is hit, or null if only
+     *               whether a tile is hit is needed
+     * @return true if the box hits a blocking tile before completing the movement
+     */
+    public boolean sweep(double x, double y, int width, int height, double deltaX, double deltaY, int mask, SweepResult result) {
+        int stepX = deltaX > 0 ? 1 : -1, stepY = deltaY > 0 ? 1 : -1;
+
+        // The next column and row the leading edges will enter, and the time at which they enter them.
+        int nextColumn = stepX > 0 ? (int) Math.ceil((x + width) / tileWidth) : (int) Math.floor(x / tileWidth) - 1;
+        int nextRow = stepY > 0 ? (int) Math.ceil((y + height) / tileHeight) : (int) Math.floor(y / tileHeight) - 1;
+        double nextTimeX = deltaX == 0 ? Double.POSITIVE_INFINITY : (columnBoundary(nextColumn, stepX) - (stepX > 0 ? x + width : x)) / deltaX;
+        double nextTimeY = deltaY == 0 ? Double.POSITIVE_INFINITY : (rowBoundary(nextRow, stepY) - (stepY > 0 ? y + height : y)) / deltaY;
+        double stepTimeX = Math.abs(tileWidth / deltaX), stepTimeY = Math.abs(tileHeight / deltaY);
+
+        while (nextTimeX < 1 || nextTimeY < 1) {
+            double time = Math.min(nextTimeX, nextTimeY);
+            double currentX = x + deltaX * time, currentY = y + deltaY * time;
+            boolean crossesX = nextTimeX == time, crossesY = nextTimeY == time;
+
+            // Check the tiles being entered against the rows or columns the box covers at this point.
+            int minColumn = firstTile(currentX, tileWidth), maxColumn = lastTile(currentX + width, tileWidth);
+            int minRow = firstTile(currentY, tileHeight), maxRow = lastTile(currentY + height, tileHeight);
+            boolean blockedX = crossesX && blocksAny(nextColumn, nextColumn, minRow, maxRow, mask);
+            boolean blockedY = crossesY && blocksAny(minColumn, maxColumn, nextRow, nextRow, mask);
+
+            // Crossing a column and a row at once also enters the tile on the diagonal.
+            if (crossesX && crossesY && !blockedX && !blockedY && (getFlags(nextColumn, nextRow) & mask) != 0) {
+                // Stop the slower axis so that sliding carries on in the main direction of movement.
+                if (Math.abs(deltaX) < Math.abs(deltaY)) {
+                    blockedX = true;
+                } else {
+                    blockedY = true;
+                }
+            }
+
+            if ((blockedX || blockedY) && result == null) {
+                return true;
+            } else if (blockedX || blockedY) {
+                result.time = time;
+                result.normalX = blockedX ? -stepX : 0;
+                result.normalY = blockedY ? -stepY : 0;
+                // Snap to the face that was hit so rounding can't leave the box inside the tile.
+                result.x = blockedX ? columnBoundary(nextColumn, stepX) - (stepX > 0 ? width : 0) : currentX;
+                result.y = blockedY ? rowBoundary(nextRow, stepY) - (stepY > 0 ? height : 0) : currentY;
+                return true;
+            }
+
+            if (crossesX) {
+                nextColumn += stepX;
+                nextTimeX += stepTimeX;
+            }
+            if (crossesY) {
+                nextRow += stepY;
+                nextTimeY += stepTimeY;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets whether any tile in the specified range of columns and rows has one of the specified flags.
+     *
+     * @param minColumn the first column
+     * @param maxColumn the last column
+     * @param minRow    the first row
+     * @param maxRow    the last row
+     * @param mask      the flags that count as blocking
+     * @return true if a tile in the range is blocking
+     */
+    private boolean blocksAny(int minColumn, int maxColumn, int minRow, int maxRow, int mask) {
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                if ((getFlags(column, row) & mask) != 0) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the x coordinate of the face of a column that something moving in the specified direction enters through.
+     *
+     * @param column the column being entered
+     * @param stepX  the direction of movement (1 or -1)
+     * @return the x coordinate of the face in pixels
+     */
+    private int columnBoundary(int column, int stepX) {
+        return (stepX > 0 ? column : column + 1) * tileWidth;
+    }
+
+    /**
+     * Gets the y coordinate of the face of a row that something moving in the specified direction enters through.
+     *
+     * @param row   the row being entered
+     * @param stepY the direction of movement (1 or -1)
+     * @return the y coordinate of the face in pixels
+     */
+    private int rowBoundary(int row, int stepY) {
+        return (stepY > 0 ? row : row + 1) * tileHeight;
+    }
+
+    /**
+     * Gets the first tile covered by something starting at the specified coordinate.
+     *
+     * @param start    the starting coordinate in pixels
+     * @param tileSize the size of one tile in pixels
+     * @return the index of the first tile covered
+     */
+    private static int firstTile(double start, int tileSize) {
+        return (int) Math.floor(start / tileSize);
+    }
+
+    /**
+     * Gets the last tile covered by something ending (exclusively) at the specified coordinate.
+     *
+     * @param end      the ending coordinate in pixels
+     * @param tileSize the size of one tile in pixels
+     * @return the index of the last tile covered
+     */
+    private static int lastTile(double end, int tileSize) {
+        return (int) Math.ceil(end / tileSize) - 1;
+    }
+
+    /**
+     * Gets whether the tile at the specified tile coordinates is water.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return true if the tile is in the water layer
+     */
+    public boolean isWater(int tileX, int tileY) {
+        return (getFlags(tileX, tileY) & WATER) != 0;
+    }
+}
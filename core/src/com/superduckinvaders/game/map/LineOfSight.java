@@ -0,0 +1,139 @@
+package com.superduckinvaders.game.map;
+
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Answers whether one point on the map can be seen from another by walking the tiles on the line between them.
+ * Results are cached per pair of tiles until the cache is cleared, which the Round does once a frame, so mobs standing
+ * on the same tile looking at the same target only walk the line once.
+ */
+public final class LineOfSight {
+
+    /**
+     * The map to test against.
+     */
+    private final CompiledMap map;
+
+    /**
+     * Which tile flags block sight.
+     */
+    private final int mask;
+
+    /**
+     * Results of the tests made since the cache was last cleared, keyed by the pair of tile indices.
+     */
+    private final LongMap<Boolean> cache = new LongMap<Boolean>();
+
+    /**
+     * Initialises this LineOfSight.
+     *
+     * @param map  the map to test against
+     * @param mask which tile flags block sight (a combination of the CompiledMap flag constants)
+     */
+    public LineOfSight(CompiledMap map, int mask) {
+        this.map = map;
+        this.mask = mask;
+    }
+
+    /**
+     * Forgets all cached results. Should be called whenever the things being looked at may have moved.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Gets whether the specified point can be seen from another point.
+     *
+     * @param fromX the x coordinate to look from, in pixels
+     * @param fromY the y coordinate to look from, in pixels
+     * @param toX   the x coordinate to look at, in pixels
+     * @param toY   the y coordinate to look at, in pixels
+     * @return true if no blocking tile lies between the two points
+     */
+    public boolean canSee(double fromX, double fromY, double toX, double toY) {
+        return canSeeTile((int) Math.floor(fromX / map.getTileWidth()), (int) Math.floor(fromY / map.getTileHeight()),
+                (int) Math.floor(toX / map.getTileWidth()), (int) Math.floor(toY / map.getTileHeight()));
+    }
+
+    /**
+     * Gets whether the specified tile can be seen from another tile, using the cached result if there is one.
+     *
+     * @param fromTileX the x coordinate of the tile to look from
+     * @param fromTileY the y coordinate of the tile to look from
+     * @param toTileX   the x coordinate of the tile to look at
+     * @param toTileY   the y coordinate of the tile to look at
+     * @return true if no blocking tile lies on the line between the centres of the two tiles
+     */
+    public boolean canSeeTile(int fromTileX, int fromTileY, int toTileX, int toTileY) {
+        long key = ((long) (fromTileX + fromTileY * map.getWidth()) << 32) | ((toTileX + toTileY * map.getWidth()) & 0xffffffffL);
+        Boolean result = cache.get(key);
+
+        if (result == null) {
+            result = walk(fromTileX, fromTileY, toTileX, toTileY) ? Boolean.TRUE : Boolean.FALSE;
+            cache.put(key, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Walks every tile touched by the line between the centres of two tiles, stopping at the first one that blocks.
+     * Where the line passes exactly through a corner both tiles beside the corner are checked, so sight can't slip
+     * between two diagonal walls.
+     *
+     * @param fromTileX the x coordinate of the tile to look from
+     * @param fromTileY the y coordinate of the tile to look from
+     * @param toTileX   the x coordinate of the tile to look at
+     * @param toTileY   the y coordinate of the tile to look at
+     * @return true if no tile on the line blocks
+     */
+    private boolean walk(int fromTileX, int fromTileY, int toTileX, int toTileY) {
+        int stepsX = Math.abs(toTileX - fromTileX), stepsY = Math.abs(toTileY - fromTileY);
+        int signX = toTileX > fromTileX ? 1 : -1, signY = toTileY > fromTileY ? 1 : -1;
+        int tileX = fromTileX, tileY = fromTileY;
+
+        if (blocks(tileX, tileY)) {
+            return false;
+        }
+
+        for (int x = 0, y = 0; x < stepsX || y < stepsY; ) {
+            // Compare where the line next crosses a vertical and a horizontal tile edge (scaled to stay in integers).
+            int decision = (1 + 2 * x) * stepsY - (1 + 2 * y) * stepsX;
+
+            if (decision == 0) {
+                if (blocks(tileX + signX, tileY) || blocks(tileX, tileY + signY)) {
+                    return false;
+                }
+
+                tileX += signX;
+                tileY += signY;
+                x++;
+                y++;
+            } else if (decision < 0) {
+                tileX += signX;
+                x++;
+            } else {
+                tileY += signY;
+                y++;
+            }
+
+            if (blocks(tileX, tileY)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets whether the specified tile blocks sight.
+     *
+     * @param tileX the x coordinate of the tile
+     * @param tileY the y coordinate of the tile
+     * @return true if the tile has any of the blocking flags
+     */
+    private boolean blocks(int tileX, int tileY) {
+        return (map.getFlags(tileX, tileY) & mask) != 0;
+    }
+}
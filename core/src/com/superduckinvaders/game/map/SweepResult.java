@@ -0,0 +1,23 @@
+package com.superduckinvaders.game.map;
+
+/**
+ * Holds the result of sweeping a box through the tile grid of a CompiledMap. Reused between sweeps to avoid
+ * allocating a new result for every move.
+ */
+public final class SweepResult {
+
+    /**
+     * The fraction of the movement (between 0 and 1) completed before touching a blocked tile.
+     */
+    public double time;
+
+    /**
+     * The coordinates of the box's bottom left corner at the point of contact.
+     */
+    public double x, y;
+
+    /**
+     * The normal of the tile face that was hit. Each component is -1, 0 or 1.
+     */
+    public int normalX, normalY;
+}
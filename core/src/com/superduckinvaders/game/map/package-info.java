@@ -0,0 +1,4 @@
+/**
+ * Contains code relating to querying the tile map quickly during gameplay.
+ */
+package com.superduckinvaders.game.map;
\ No newline at end of file
@@ -2,12 +2,14 @@ package com.superduckinvaders.game.objective;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Pool;
 import com.superduckinvaders.game.assets.Assets;
 
 /**
- * Represents the floating text which displays upon killing an enemy or gaining some score.
+ * Represents the floating text which displays upon killing an enemy or gaining some score. Pooled by the GameScreen, so
+ * one can be shown again once its time is up.
  */
-public class AnimatedText {
+public class AnimatedText implements Pool.Poolable {
     /**
      * Time the text will be on the screen in seconds
      */
@@ -47,6 +49,24 @@ public class AnimatedText {
      * @param colour The colour of the text.
      */
     public AnimatedText(String text, float x, float y, Color colour) {
+        show(text, x, y, colour);
+    }
+
+    /**
+     * Initialises an instance of AnimatedText with nothing to show yet. Used by the GameScreen's text pool.
+     */
+    public AnimatedText() {
+    }
+
+    /**
+     * Starts showing text at a position.
+     *
+     * @param text   The text to display.
+     * @param x      The x position of the text.
+     * @param y      The y position of the text.
+     * @param colour The colour of the text.
+     */
+    public void show(String text, float x, float y, Color colour) {
         this.text = text;
         this.currentX = x;
         this.currentY = y;
@@ -54,6 +74,16 @@ public class AnimatedText {
         this.displayTimer = LIFETIME;
     }
 
+    /**
+     * Clears this AnimatedText so that it can be shown again.
+     */
+    @Override
+    public void reset() {
+        text = null;
+        colour = null;
+        displayTimer = 0;
+    }
+
     /**
      * Draws the animated text with correct offset position on the SpriteBatch
      *
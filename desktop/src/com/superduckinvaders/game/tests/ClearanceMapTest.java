@@ -0,0 +1,74 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.map.ClearanceMap;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClearanceMapTest {
+
+    protected static ClearanceMap testClearance;
+
+    @BeforeClass
+    public static void setUp() {
+        //5x5 map with a single blocked tile at (2, 2)
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+        cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+        collision.setCell(2, 2, cell);
+        map.getLayers().add(collision);
+
+        testClearance = new ClearanceMap(new CompiledMap(map, null), CompiledMap.BLOCKED | CompiledMap.OBSTACLE);
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(5, 5, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    @Test
+    public void clearanceTest() {
+        //blocked and off the map
+        assertEquals(0, testClearance.getClearance(2, 2));
+        assertEquals(0, testClearance.getClearance(-1, 0));
+
+        //squares stop just short of the blocked tile
+        assertEquals(2, testClearance.getClearance(0, 0));
+        assertEquals(1, testClearance.getClearance(1, 1));
+        assertEquals(1, testClearance.getClearance(2, 1));
+
+        //past the blocked tile, room carries on off the top and right edges
+        assertEquals(true, testClearance.getClearance(3, 3) > 2);
+        assertEquals(true, testClearance.getClearance(0, 3) > 2);
+    }
+
+    @Test
+    public void boxSizeTest() {
+        assertEquals(1, testClearance.getBoxSize(10, 16));
+        assertEquals(2, testClearance.getBoxSize(17, 8));
+        assertEquals(3, testClearance.getBoxSize(20, 40));
+    }
+
+    @Test
+    public void sharedGraphTest() {
+        //a small and a large box read the same clearance map
+        TileGraph small = new TileGraph(testClearance, 16, 16), large = new TileGraph(testClearance, 32, 32);
+
+        assertEquals(true, small.isPassable(1, 1));
+        assertEquals(false, large.isPassable(1, 1));
+        assertEquals(true, large.isPassable(0, 0));
+        assertEquals(false, small.isPassable(2, 2));
+    }
+}
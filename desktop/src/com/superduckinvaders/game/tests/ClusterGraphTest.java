@@ -0,0 +1,91 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.ai.ClusterGraph;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.ai.TilePathfinder;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClusterGraphTest {
+
+    protected static TileGraph testGraph, walledGraph;
+
+    @BeforeClass
+    public static void setUp() {
+        //25x25 maps (3x3 clusters) with a wall at x = 12, one with a gap at the top and one without
+        testGraph = new TileGraph(new CompiledMap(createMap(23), null), 16, 16);
+        walledGraph = new TileGraph(new CompiledMap(createMap(24), null), 16, 16);
+    }
+
+    private static TiledMap createMap(int wallTop) {
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        for (int y = 0; y <= wallTop; y++) {
+            TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+            cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+            collision.setCell(12, y, cell);
+        }
+        map.getLayers().add(collision);
+
+        return map;
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(25, 25, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    @Test
+    public void pathTest() {
+        ClusterGraph clusterGraph = new ClusterGraph(testGraph);
+        IntArray path = new IntArray();
+
+        assertEquals(true, clusterGraph.findPath(0, 0, 24, 0, path));
+
+        //ends at the goal and every step is to a passable neighbour
+        assertEquals(24, path.peek());
+        int tileX = 0, tileY = 0;
+        for (int i = 0; i < path.size; i++) {
+            int nextX = path.get(i) % 25, nextY = path.get(i) / 25;
+            assertEquals(true, Math.abs(nextX - tileX) <= 1 && Math.abs(nextY - tileY) <= 1);
+            assertEquals(true, testGraph.isPassable(nextX, nextY));
+            tileX = nextX;
+            tileY = nextY;
+        }
+
+        //no shorter than the best path, and not much longer
+        IntArray best = new IntArray();
+        TilePathfinder.findPath(testGraph, 0, 0, 24, 0, 0, best);
+        assertEquals(true, path.size >= best.size && path.size <= best.size + best.size / 4);
+    }
+
+    @Test
+    public void sameClusterTest() {
+        ClusterGraph clusterGraph = new ClusterGraph(testGraph);
+        IntArray path = new IntArray();
+
+        assertEquals(true, clusterGraph.findPath(1, 1, 4, 1, path));
+        assertEquals(3, path.size);
+    }
+
+    @Test
+    public void noPathTest() {
+        ClusterGraph clusterGraph = new ClusterGraph(walledGraph);
+        IntArray path = new IntArray();
+
+        assertEquals(false, clusterGraph.findPath(0, 0, 24, 0, path));
+        assertEquals(0, path.size);
+    }
+}
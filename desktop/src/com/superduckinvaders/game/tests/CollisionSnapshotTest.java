@@ -0,0 +1,167 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.superduckinvaders.game.entity.CollisionSnapshot;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CollisionSnapshotTest {
+
+    protected static CompiledMap testMap;
+    protected List<Entity> testEntities;
+
+    @Before
+    public void setUp() {
+        //40x40 map of 16px tiles with a wall along x = 10
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        for (int y = 0; y < 40; y++) {
+            TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+            cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+            collision.setCell(10, y, cell);
+        }
+        map.getLayers().add(collision);
+
+        testMap = new CompiledMap(map, null);
+        testEntities = new ArrayList<Entity>();
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(40, 40, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    protected static Entity createEntity(double x, double y, final int category) {
+        return new Entity(null, x, y) {
+            @Override
+            public int getCategory() {
+                return category;
+            }
+
+            @Override
+            public int getWidth() {
+                return 16;
+            }
+
+            @Override
+            public int getHeight() {
+                return 16;
+            }
+
+            @Override
+            public void render(SpriteBatch spriteBatch) {
+            }
+        };
+    }
+
+    @Test
+    public void testEntityMaskAndIgnore() {
+        Entity mob = createEntity(300, 300, Entity.MOB);
+        testEntities.add(mob);
+        CollisionSnapshot snapshot = new CollisionSnapshot(testMap, testEntities);
+
+        //moving into the mob collides, but only if mobs are in the mask
+        assertTrue(snapshot.collides(280, 300, 16, 16, 10, 0, 0, Entity.MOB, null));
+        assertFalse(snapshot.collides(280, 300, 16, 16, 10, 0, 0, Entity.PLAYER, null));
+        assertFalse(snapshot.collides(280, 300, 16, 16, 0, 0, 0, Entity.MOB, null));
+
+        //the mob doesn't collide with itself
+        assertFalse(snapshot.collides(300, 300, 16, 16, 1, 0, 0, Entity.MOB, mob));
+    }
+
+    @Test
+    public void testSnapshotKeepsOldPositions() {
+        Entity mob = createEntity(300, 300, Entity.MOB);
+        Entity ghost = createEntity(100, 300, 0);
+        testEntities.add(mob);
+        testEntities.add(ghost);
+        CollisionSnapshot snapshot = new CollisionSnapshot(testMap, testEntities);
+
+        //entities without a category are left out
+        assertEquals(1, snapshot.size());
+        assertFalse(snapshot.collides(100, 300, 16, 16, 1, 0, 0, Entity.CHARACTERS, null));
+
+        //moving the mob doesn't change the snapshot until it is refilled
+        mob.setPosition(500, 500);
+        assertTrue(snapshot.collides(300, 300, 16, 16, 1, 0, 0, Entity.MOB, null));
+
+        snapshot.refill(testEntities);
+        assertFalse(snapshot.collides(300, 300, 16, 16, 1, 0, 0, Entity.MOB, null));
+        assertTrue(snapshot.collides(500, 500, 16, 16, 1, 0, 0, Entity.MOB, null));
+    }
+
+    @Test
+    public void testRefillGrowsAndShrinks() {
+        for (int i = 0; i < 20; i++) {
+            testEntities.add(createEntity(200 + i * 20, 400, Entity.MOB));
+        }
+
+        //start empty, then grow past the first capacity
+        CollisionSnapshot snapshot = new CollisionSnapshot(testMap);
+        assertEquals(0, snapshot.size());
+        assertFalse(snapshot.collides(200, 400, 16, 16, 1, 0, 0, Entity.MOB, null));
+
+        snapshot.refill(testEntities.subList(0, 2));
+        assertEquals(2, snapshot.size());
+
+        snapshot.refill(testEntities);
+        assertEquals(20, snapshot.size());
+        assertTrue(snapshot.collides(575, 400, 16, 16, 1, 0, 0, Entity.MOB, null));
+
+        //removed entities are left out, and the ones that are gone can't be hit any more
+        testEntities.get(19).removed = true;
+        snapshot.refill(testEntities);
+        assertEquals(19, snapshot.size());
+        assertFalse(snapshot.collides(590, 400, 16, 16, 1, 0, 0, Entity.MOB, null));
+        assertTrue(snapshot.collides(200, 400, 16, 16, 1, 0, 0, Entity.MOB, null));
+    }
+
+    @Test
+    public void testTerrain() {
+        CollisionSnapshot snapshot = new CollisionSnapshot(testMap, testEntities);
+        int mask = CompiledMap.BLOCKED;
+
+        //standing still only checks the tiles under the box
+        assertFalse(snapshot.collides(100, 100, 16, 16, 0, 0, mask, 0, null));
+        assertTrue(snapshot.collides(165, 100, 16, 16, 0, 0, mask, 0, null));
+
+        //moving checks everything swept through, even past the wall in one step
+        assertFalse(snapshot.collides(100, 100, 16, 16, 40, 0, mask, 0, null));
+        assertTrue(snapshot.collides(100, 100, 16, 16, 100, 0, mask, 0, null));
+        assertTrue(snapshot.collides(100, 100, 16, 16, 44.5, 0, mask, 0, null));
+
+        //without a terrain mask the wall is ignored
+        assertFalse(snapshot.collides(100, 100, 16, 16, 100, 0, 0, 0, null));
+    }
+
+    @Test
+    public void testSweepWithoutResult() {
+        int mask = CompiledMap.BLOCKED;
+
+        //sweeping with no result gives the same answer as with one
+        assertTrue(testMap.sweep(100, 100, 16, 16, 100, 0, mask, null));
+        assertTrue(testMap.sweep(250, 100, 16, 16, -100, 30, mask, null));
+        assertFalse(testMap.sweep(100, 100, 16, 16, 40, 200, mask, null));
+        assertFalse(testMap.sweep(200, 100, 16, 16, 0, 300, mask, null));
+
+        //the box's far edge stopping exactly at the wall doesn't count as a hit
+        assertFalse(testMap.sweep(100, 100, 16, 16, 44, 0, mask, null));
+    }
+}
@@ -0,0 +1,110 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.superduckinvaders.game.map.CompiledMap;
+import com.superduckinvaders.game.map.SweepResult;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompiledMapTest {
+
+    protected static TiledMapTileLayer obstaclesLayer;
+    protected static CompiledMap testMap;
+
+    @BeforeClass
+    public static void setUp() {
+        //4x3 map with one tile in each of the collision, obstacles and water layers
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base", -1, -1));
+        map.getLayers().add(createLayer("Collision", 0, 0));
+        map.getLayers().add(createLayer("Water", 3, 2));
+        obstaclesLayer = createLayer("Obstacles0", 1, 0);
+        map.getLayers().add(obstaclesLayer);
+
+        testMap = new CompiledMap(map, obstaclesLayer);
+    }
+
+    private static TiledMapTileLayer createLayer(String name, int tileX, int tileY) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(4, 3, 16, 16);
+        layer.setName(name);
+
+        if (tileX >= 0) {
+            TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+            cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+            layer.setCell(tileX, tileY, cell);
+        }
+
+        return layer;
+    }
+
+    @Test
+    public void dimensionsTest() {
+        assertEquals(4, testMap.getWidth());
+        assertEquals(3, testMap.getHeight());
+        assertEquals(16, testMap.getTileWidth());
+        assertEquals(64, testMap.getMapWidth());
+        assertEquals(48, testMap.getMapHeight());
+    }
+
+    @Test
+    public void flagsTest() {
+        //collision layer blocks everything
+        assertEquals(true, testMap.isBlocked(0, 0));
+        assertEquals(false, testMap.isFlyable(0, 0));
+
+        //obstacles block walking but not flying
+        assertEquals(true, testMap.isBlocked(1, 0));
+        assertEquals(true, testMap.isObstacle(1, 0));
+        assertEquals(true, testMap.isFlyable(1, 0));
+
+        //water doesn't block
+        assertEquals(true, testMap.isWater(3, 2));
+        assertEquals(false, testMap.isBlocked(3, 2));
+
+        //empty and out of bounds tiles have no flags
+        assertEquals(0, testMap.getFlags(2, 1));
+        assertEquals(0, testMap.getFlags(-1, 0));
+        assertEquals(0, testMap.getFlags(4, 3));
+    }
+
+    @Test
+    public void sweepTest() {
+        SweepResult result = new SweepResult();
+        int walking = CompiledMap.BLOCKED | CompiledMap.OBSTACLE;
+
+        //walking into the obstacle stops at its right face
+        assertEquals(true, testMap.sweep(40, 2, 8, 8, -30, 0, walking, result));
+        assertEquals(32, result.x, 0.0001);
+        assertEquals(1, result.normalX);
+        assertEquals(0, result.normalY);
+
+        //flying passes over the obstacle and stops at the collision tile
+        assertEquals(true, testMap.sweep(40, 2, 8, 8, -30, 0, CompiledMap.BLOCKED, result));
+        assertEquals(16, result.x, 0.0001);
+        assertEquals(0.8, result.time, 0.0001);
+
+        //very fast movement can't pass through the wall
+        assertEquals(true, testMap.sweep(40, 2, 8, 8, -1000, 0, walking, result));
+        assertEquals(32, result.x, 0.0001);
+
+        //moving through free tiles doesn't collide
+        assertEquals(false, testMap.sweep(36, 20, 8, 8, 10, 10, walking, result));
+
+        //moving down onto the obstacle reports the top face
+        assertEquals(true, testMap.sweep(20, 20, 8, 8, 0, -10, walking, result));
+        assertEquals(16, result.y, 0.0001);
+        assertEquals(1, result.normalY);
+    }
+
+    @Test
+    public void overlapsTest() {
+        assertEquals(true, testMap.overlaps(10, 10, 8, 8, CompiledMap.BLOCKED));
+        assertEquals(false, testMap.overlaps(16, 16, 8, 8, CompiledMap.BLOCKED | CompiledMap.OBSTACLE));
+        assertEquals(false, testMap.overlaps(16, 0, 16, 16, CompiledMap.BLOCKED));
+    }
+}
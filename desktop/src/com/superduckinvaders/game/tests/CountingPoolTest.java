@@ -0,0 +1,60 @@
+package com.superduckinvaders.game.tests;
+
+import com.superduckinvaders.game.CountingPool;
+import com.superduckinvaders.game.entity.Particle;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class CountingPoolTest {
+
+    private static CountingPool<Particle> createPool() {
+        return new CountingPool<Particle>(4, 16) {
+            @Override
+            protected Particle newObject() {
+                return new Particle(null);
+            }
+        };
+    }
+
+    @Test
+    public void testCounts() {
+        CountingPool<Particle> pool = createPool();
+        assertEquals(1, pool.getHitRate(), 0);
+
+        Particle first = pool.obtain();
+        Particle second = pool.obtain();
+        assertEquals(2, pool.getInUse());
+        assertEquals(0, pool.getHitRate(), 0);
+
+        pool.free(first);
+        assertEquals(1, pool.getInUse());
+
+        // The freed particle is handed out again rather than a new one.
+        assertSame(first, pool.obtain());
+        assertEquals(3, pool.getObtained());
+        assertEquals(1 / 3f, pool.getHitRate(), 0.0001f);
+        assertEquals(2, pool.getPeakInUse());
+
+        pool.free(first);
+        pool.free(second);
+        assertEquals(0, pool.getInUse());
+        assertEquals(2, pool.getPeakInUse());
+    }
+
+    @Test
+    public void testParticleReset() {
+        CountingPool<Particle> pool = createPool();
+
+        Particle particle = pool.obtain();
+        particle.show(10, 20, 1, null);
+        assertEquals(10, particle.getX(), 0);
+
+        pool.free(particle);
+        assertEquals(0, particle.getX(), 0);
+        assertEquals(0, particle.getY(), 0);
+        assertFalse(particle.isRemoved());
+    }
+}
@@ -0,0 +1,94 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.superduckinvaders.game.ai.FlowField;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlowFieldTest {
+
+    protected static CompiledMap testMap;
+
+    @BeforeClass
+    public static void setUp() {
+        //6x5 map with a wall at x = 2 from y = 0 to y = 3, leaving a gap at the top
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        for (int y = 0; y <= 3; y++) {
+            TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+            cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+            collision.setCell(2, y, cell);
+        }
+        map.getLayers().add(collision);
+
+        testMap = new CompiledMap(map, null);
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(6, 5, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    @Test
+    public void routeTest() {
+        FlowField flowField = new FlowField(new TileGraph(testMap, 16, 16), 20);
+        flowField.setTarget(4, 0);
+
+        //the target leads to itself
+        assertEquals(4, flowField.getNextTile(4, 0));
+
+        //walls aren't part of the field
+        assertEquals(-1, flowField.getNextTile(2, 0));
+
+        //following the field from the other side of the wall goes over the top of it to the target
+        int tileX = 0, tileY = 0, steps = 0, highest = 0;
+        while (!(tileX == 4 && tileY == 0) && steps < 20) {
+            int next = flowField.getNextTile(tileX, tileY);
+            int nextX = next % flowField.getWidth(), nextY = next / flowField.getWidth();
+
+            //only ever move to a neighbouring tile that isn't in the wall
+            assertEquals(true, Math.abs(nextX - tileX) <= 1 && Math.abs(nextY - tileY) <= 1);
+            assertEquals(false, testMap.isBlocked(nextX, nextY));
+
+            tileX = nextX;
+            tileY = nextY;
+            highest = Math.max(highest, tileY);
+            steps++;
+        }
+
+        assertEquals(4, tileX);
+        assertEquals(0, tileY);
+        assertEquals(4, highest);
+    }
+
+    @Test
+    public void radiusTest() {
+        FlowField flowField = new FlowField(new TileGraph(testMap, 16, 16), 2);
+        flowField.setTarget(4, 0);
+
+        assertEquals(4 + 1 * 6, flowField.getNextTile(4, 2));
+        assertEquals(-1, flowField.getNextTile(0, 0));
+    }
+
+    @Test
+    public void retargetTest() {
+        FlowField flowField = new FlowField(new TileGraph(testMap, 16, 16), 20);
+        flowField.setTarget(4, 0);
+        assertEquals(4, flowField.getNextTile(4, 0));
+
+        flowField.setTarget(0, 0);
+        assertEquals(0, flowField.getNextTile(0, 1));
+        assertEquals(-1, flowField.getNextTile(-1, 0));
+    }
+}
@@ -0,0 +1,189 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.XmlReader;
+import com.superduckinvaders.game.ai.JumpPointPathfinder;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.ai.TilePathfinder;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class JumpPointPathfinderTest {
+
+    //the maps used by the eight levels
+    static final String[] MAPS = {"map.tmx", "map2.tmx", "map3.tmx", "map4.tmx", "map5.tmx", "map6.tmx", "map7.tmx", "map8.tmx"};
+
+    //how many random searches to run on each map
+    private static final int SEARCHES = 200;
+
+    protected static TileGraph testGraph;
+
+    @BeforeClass
+    public static void setUp() {
+        //6x5 map with a wall at x = 2 from y = 0 to y = 3, leaving a gap at the top
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base", 6, 5, 16));
+        map.getLayers().add(createLayer("Water", 6, 5, 16));
+
+        TiledMapTileLayer collision = createLayer("Collision", 6, 5, 16);
+        for (int y = 0; y <= 3; y++) {
+            setCell(collision, 2, y);
+        }
+        map.getLayers().add(collision);
+
+        testGraph = new TileGraph(new CompiledMap(map, null), 16, 16);
+    }
+
+    private static TiledMapTileLayer createLayer(String name, int width, int height, int tileSize) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(width, height, tileSize, tileSize);
+        layer.setName(name);
+        return layer;
+    }
+
+    private static void setCell(TiledMapTileLayer layer, int x, int y) {
+        TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+        cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+        layer.setCell(x, y, cell);
+    }
+
+    //finds the shipped maps folder from the usual working directories, or null if it isn't there
+    static File findMaps() {
+        String[] paths = {"maps", "core/assets/maps", "../core/assets/maps"};
+
+        for (String path : paths) {
+            if (new File(path, MAPS[0]).exists()) {
+                return new File(path);
+            }
+        }
+
+        return null;
+    }
+
+    //reads the layers the compiled map needs from a .tmx file, without loading any textures
+    static CompiledMap loadMap(File file) throws IOException {
+        FileInputStream input = new FileInputStream(file);
+        XmlReader.Element root;
+        try {
+            root = new XmlReader().parse(input);
+        } finally {
+            input.close();
+        }
+
+        int width = root.getIntAttribute("width"), height = root.getIntAttribute("height");
+        int tileSize = root.getIntAttribute("tilewidth");
+
+        TiledMap map = new TiledMap();
+        TiledMapTileLayer obstacles = null;
+
+        for (XmlReader.Element element : root.getChildrenByName("layer")) {
+            TiledMapTileLayer layer = createLayer(element.getAttribute("name"), width, height, tileSize);
+            String[] cells = element.getChildByName("data").getText().trim().split("\\s*,\\s*");
+
+            //rows are stored top first, but y counts up from the bottom
+            for (int i = 0; i < cells.length; i++) {
+                if (Long.parseLong(cells[i]) != 0) {
+                    setCell(layer, i % width, height - 1 - i / width);
+                }
+            }
+
+            map.getLayers().add(layer);
+            if (layer.getName().equals("Obstacles0")) {
+                obstacles = layer;
+            }
+        }
+
+        return new CompiledMap(map, obstacles);
+    }
+
+    static int pathCost(IntArray path, int startX, int startY, int width) {
+        int cost = 0, tileX = startX, tileY = startY;
+
+        for (int i = 0; i < path.size; i++) {
+            int nextX = path.get(i) % width, nextY = path.get(i) / width;
+            cost += nextX != tileX && nextY != tileY ? TileGraph.DIAGONAL_COST : TileGraph.STRAIGHT_COST;
+            tileX = nextX;
+            tileY = nextY;
+        }
+
+        return cost;
+    }
+
+    @Test
+    public void pathTest() {
+        IntArray path = new IntArray();
+
+        assertEquals(true, JumpPointPathfinder.findPath(testGraph, 0, 0, 4, 0, 0, path));
+
+        //filled in tile by tile, ending at the goal with every step to a passable neighbour
+        assertEquals(4, path.peek());
+        int tileX = 0, tileY = 0;
+        for (int i = 0; i < path.size; i++) {
+            int nextX = path.get(i) % 6, nextY = path.get(i) / 6;
+            assertEquals(true, Math.abs(nextX - tileX) <= 1 && Math.abs(nextY - tileY) <= 1);
+            assertEquals(true, testGraph.isPassable(nextX, nextY));
+            tileX = nextX;
+            tileY = nextY;
+        }
+
+        //the same 10 steps over the top of the wall as plain A*
+        assertEquals(10, path.size);
+    }
+
+    @Test
+    public void startIsGoalTest() {
+        IntArray path = new IntArray();
+        path.add(1);
+
+        assertEquals(true, JumpPointPathfinder.findPath(testGraph, 3, 3, 3, 3, 0, path));
+        assertEquals(0, path.size);
+    }
+
+    @Test
+    public void equalCostTest() throws IOException {
+        File maps = findMaps();
+        Assume.assumeTrue(maps != null);
+
+        Random random = new Random(1);
+        IntArray aStarPath = new IntArray(), jumpPointPath = new IntArray();
+
+        for (String name : MAPS) {
+            CompiledMap compiledMap = loadMap(new File(maps, name));
+            TileGraph graph = new TileGraph(compiledMap, compiledMap.getTileWidth(), compiledMap.getTileHeight());
+            int width = graph.getWidth();
+
+            for (int i = 0; i < SEARCHES; i++) {
+                int startX, startY, goalX, goalY;
+                do {
+                    startX = random.nextInt(width);
+                    startY = random.nextInt(graph.getHeight());
+                } while (!graph.isPassable(startX, startY));
+                do {
+                    goalX = random.nextInt(width);
+                    goalY = random.nextInt(graph.getHeight());
+                } while (!graph.isPassable(goalX, goalY));
+
+                boolean aStarFound = TilePathfinder.findPath(graph, startX, startY, goalX, goalY, 0, aStarPath);
+                boolean jumpPointFound = JumpPointPathfinder.findPath(graph, startX, startY, goalX, goalY, 0, jumpPointPath);
+
+                //both find a path to the same places, and the paths cost the same
+                assertEquals(aStarFound, jumpPointFound);
+                if (aStarFound) {
+                    assertEquals(pathCost(aStarPath, startX, startY, width), pathCost(jumpPointPath, startX, startY, width));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.superduckinvaders.game.map.CompiledMap;
+import com.superduckinvaders.game.map.LineOfSight;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LineOfSightTest {
+
+    protected static CompiledMap testMap;
+
+    @BeforeClass
+    public static void setUp() {
+        //5x5 map with a wall at (2, 1) to (2, 3) and an obstacle at (4, 4)
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        for (int y = 1; y <= 3; y++) {
+            setTile(collision, 2, y);
+        }
+        map.getLayers().add(collision);
+
+        TiledMapTileLayer obstacles = createLayer("Obstacles0");
+        setTile(obstacles, 4, 4);
+        map.getLayers().add(obstacles);
+
+        testMap = new CompiledMap(map, obstacles);
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(5, 5, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    private static void setTile(TiledMapTileLayer layer, int tileX, int tileY) {
+        TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+        cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+        layer.setCell(tileX, tileY, cell);
+    }
+
+    @Test
+    public void wallTest() {
+        LineOfSight lineOfSight = new LineOfSight(testMap, CompiledMap.BLOCKED);
+
+        //the wall is in the way
+        assertEquals(false, lineOfSight.canSeeTile(0, 2, 4, 2));
+        assertEquals(false, lineOfSight.canSeeTile(4, 1, 0, 3));
+
+        //lines passing above and below the wall
+        assertEquals(true, lineOfSight.canSeeTile(0, 4, 4, 4));
+        assertEquals(true, lineOfSight.canSeeTile(0, 0, 4, 0));
+
+        //same tile and pixel coordinates
+        assertEquals(true, lineOfSight.canSeeTile(1, 1, 1, 1));
+        assertEquals(false, lineOfSight.canSee(8, 40, 72, 40));
+    }
+
+    @Test
+    public void cornerTest() {
+        LineOfSight lineOfSight = new LineOfSight(testMap, CompiledMap.BLOCKED);
+
+        //passing exactly through the corner of the wall is blocked
+        assertEquals(false, lineOfSight.canSeeTile(1, 3, 3, 5));
+        assertEquals(false, lineOfSight.canSeeTile(1, 4, 3, 2));
+    }
+
+    @Test
+    public void maskTest() {
+        //obstacles only block when they are in the mask
+        assertEquals(true, new LineOfSight(testMap, CompiledMap.BLOCKED).canSeeTile(3, 4, 4, 4));
+        assertEquals(false, new LineOfSight(testMap, CompiledMap.BLOCKED | CompiledMap.OBSTACLE).canSeeTile(3, 4, 4, 4));
+    }
+
+    @Test
+    public void cacheTest() {
+        LineOfSight lineOfSight = new LineOfSight(testMap, CompiledMap.BLOCKED);
+
+        //repeated queries give the same answer in both directions
+        assertEquals(false, lineOfSight.canSeeTile(0, 2, 4, 2));
+        assertEquals(false, lineOfSight.canSeeTile(0, 2, 4, 2));
+        assertEquals(false, lineOfSight.canSeeTile(4, 2, 0, 2));
+
+        lineOfSight.clearCache();
+        assertEquals(true, lineOfSight.canSeeTile(0, 0, 1, 4));
+    }
+}
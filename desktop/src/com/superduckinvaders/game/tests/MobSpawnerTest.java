@@ -0,0 +1,132 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.MobSpawner;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.entity.SpatialGrid;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MobSpawnerTest {
+
+    protected static CompiledMap testMap;
+    protected static MobSpawner testSpawner;
+    protected SpatialGrid testCharacters;
+    protected IntArray positions;
+
+    //the spacing that stops 16x16 mobs overlapping
+    protected static final int SPACING = (int) Math.ceil(Math.sqrt(16 * 16 + 16 * 16));
+
+    @BeforeClass
+    public static void setUp() {
+        //40x40 map with the 10x10 tiles in the bottom left corner blocked
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 10; x++) {
+                TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+                cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+                collision.setCell(x, y, cell);
+            }
+        }
+        map.getLayers().add(collision);
+
+        testMap = new CompiledMap(map, null);
+        testSpawner = new MobSpawner(testMap, 16, 16);
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(40, 40, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    @Before
+    public void setUpCharacters() {
+        testCharacters = new SpatialGrid(40, 40, 16, 16);
+        positions = new IntArray();
+    }
+
+    @Test
+    public void testOpenGround() {
+        assertEquals(20, testSpawner.choose(20, 400, 400, 0, 0, 200, 200, testCharacters, positions));
+        assertEquals(40, positions.size);
+
+        for (int i = 0; i < positions.size; i += 2) {
+            assertFalse(testMap.overlaps(positions.get(i), positions.get(i + 1), 16, 16, CompiledMap.BLOCKED | CompiledMap.OBSTACLE));
+        }
+    }
+
+    @Test
+    public void testBlockedArea() {
+        //every tile within range of the centre is blocked
+        assertEquals(0, testSpawner.choose(5, 80, 80, 0, 0, 60, 60, testCharacters, positions));
+        assertEquals(0, positions.size);
+
+        //only part of the area is free, so asking for more than fits comes up short
+        int chosen = testSpawner.choose(200, 160, 160, 0, 0, 40, 40, testCharacters, positions);
+        assertTrue(chosen > 0 && chosen < 200);
+        assertEquals(chosen * 2, positions.size);
+    }
+
+    @Test
+    public void testSpacing() {
+        //ask for far more than fit, so the closer fallback spacing is used too
+        int chosen = testSpawner.choose(1000, 400, 400, 0, 0, 300, 300, testCharacters, positions);
+        assertTrue(chosen > 20 && chosen < 1000);
+
+        for (int i = 0; i < chosen; i++) {
+            for (int j = i + 1; j < chosen; j++) {
+                double deltaX = positions.get(i * 2) - positions.get(j * 2);
+                double deltaY = positions.get(i * 2 + 1) - positions.get(j * 2 + 1);
+                assertTrue(deltaX * deltaX + deltaY * deltaY >= SPACING * SPACING);
+            }
+        }
+    }
+
+    @Test
+    public void testOccupiedTilesSkipped() {
+        Entity occupant = new Entity(null, 320, 320) {
+            @Override
+            public int getCategory() {
+                return MOB;
+            }
+
+            @Override
+            public int getWidth() {
+                return 160;
+            }
+
+            @Override
+            public int getHeight() {
+                return 160;
+            }
+
+            @Override
+            public void render(SpriteBatch spriteBatch) {
+            }
+        };
+        testCharacters.add(occupant);
+
+        int chosen = testSpawner.choose(1000, 400, 400, 0, 0, 200, 200, testCharacters, positions);
+        assertTrue(chosen > 0);
+
+        for (int i = 0; i < chosen; i++) {
+            assertFalse(occupant.intersects(positions.get(i * 2), positions.get(i * 2 + 1), 16, 16));
+        }
+    }
+}
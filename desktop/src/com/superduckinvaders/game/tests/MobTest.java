@@ -0,0 +1,166 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.superduckinvaders.game.DuckGame;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.ai.AI;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.ai.ZombieAI;
+import com.superduckinvaders.game.assets.Assets;
+import com.superduckinvaders.game.entity.Mob;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MobTest {
+
+    protected static DuckGame duckGame;
+    protected static Round testRound;
+
+    @BeforeClass
+    public static void setUp() {
+        duckGame = new DuckGame();
+
+        LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
+        config.width = 1280;
+        config.height = 720;
+        config.resizable = false;
+        config.title = "SUPER DUCK INVADERS! - Team Mallard";
+        new LwjglApplication(duckGame, config);
+
+        while (duckGame.onGameScreen == false) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+
+        }
+        testRound = new Round(duckGame, Assets.levelOneMap);
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    public void separationFromArrivingMobTest() {
+        int testPlayerX = (int) testRound.getPlayer().getX();
+        int testPlayerY = (int) testRound.getPlayer().getY();
+
+        //a mob standing still, with nothing near enough to push it when it builds its neighbour list
+        Mob standing = new Mob(testRound, testPlayerX, testPlayerY + 40, 100, Assets.badGuyNormal, 50);
+        testRound.addEntity(standing);
+        for (int i = 0; i < 5; i++) {
+            standing.update(0.05f);
+        }
+        assertEquals(testPlayerX, (int) standing.getX());
+
+        //a second mob walks up to it from the right
+        Mob walking = new Mob(testRound, testPlayerX + 80, testPlayerY + 40, 100, Assets.badGuyNormal, 50);
+        testRound.addEntity(walking);
+        walking.setVelocity(-1, 0);
+
+        for (int i = 0; i < 40; i++) {
+            walking.update(0.05f);
+            standing.update(0.05f);
+        }
+
+        //the standing mob noticed the new neighbour and moved away from it
+        assertTrue(standing.getX() < testPlayerX);
+    }
+
+    //finds the bottom left corner of a tile a mob can stand on, at least ten tiles right of the player
+    private static int[] findDistantTile() {
+        TileGraph graph = testRound.getTileGraph(Assets.badGuyNormal.getWidth(), Assets.badGuyNormal.getHeight());
+        int playerTileX = (int) testRound.getPlayer().getX() / testRound.getTileWidth();
+        int playerTileY = (int) testRound.getPlayer().getY() / testRound.getTileHeight();
+
+        for (int tileX = playerTileX + 10; tileX < graph.getWidth(); tileX++) {
+            if (graph.isPassable(tileX, playerTileY)) {
+                return new int[]{tileX * testRound.getTileWidth(), playerTileY * testRound.getTileHeight()};
+            }
+        }
+
+        return new int[]{(playerTileX - 10) * testRound.getTileWidth(), playerTileY * testRound.getTileHeight()};
+    }
+
+    @Test
+    public void distantPathTest() {
+        int[] tile = findDistantTile();
+        AI ai = new ZombieAI(testRound, 32);
+        Mob mob = new Mob(testRound, tile[0], tile[1], 100, Assets.badGuyNormal, 50, ai, false, false);
+
+        //a mob standing in the same spot, which would stop the first one if collisions were checked
+        Mob blocker = new Mob(testRound, tile[0], tile[1], 100, Assets.badGuyNormal, 50);
+        testRound.addEntity(blocker);
+
+        //ask for a path, then find it straight away and take a new snapshot with the blocker in it
+        testRound.getPathBroker().setAsync(false);
+        ai.updateDistant(mob, 0);
+        testRound.update(0);
+        assertTrue(testRound.getCollisionWorld().collides(mob.getX(), mob.getY(), mob.getWidth(), mob.getHeight(), 1, 0, 0, mob.getCollisionMask(), mob));
+
+        //less than a tile's worth of movement goes straight for the next tile, covering exactly speed x elapsed
+        ai.updateDistant(mob, 0.5f);
+        double moved = Math.hypot(mob.getX() - tile[0], mob.getY() - tile[1]);
+        assertEquals(mob.getSpeed() * 0.5, moved, 1e-6);
+
+        blocker.removed = true;
+        testRound.getPathBroker().setAsync(true);
+    }
+
+    @Test
+    public void distantTimerTest() {
+        final int[] calls = {0};
+        final float[] elapsed = {0};
+        AI ai = new AI(testRound) {
+            @Override
+            public void update(Mob mob, float delta) {
+            }
+
+            @Override
+            public void updateDistant(Mob mob, float time) {
+                calls[0]++;
+                elapsed[0] = time;
+            }
+        };
+        Mob mob = new Mob(testRound, 0, 0, 100, Assets.badGuyNormal, 50, ai, false, false);
+
+        //whatever the timer started at, a whole second makes it fire and start again from 0
+        mob.updateDistant(1);
+        assertEquals(1, calls[0]);
+
+        //then it fires once every second, passing on the whole second
+        for (int i = 0; i < 3; i++) {
+            mob.updateDistant(0.25f);
+        }
+        assertEquals(1, calls[0]);
+
+        mob.updateDistant(0.25f);
+        assertEquals(2, calls[0]);
+        assertEquals(1, elapsed[0], 1e-6);
+
+        for (int i = 0; i < 4; i++) {
+            mob.updateDistant(0.25f);
+        }
+        assertEquals(3, calls[0]);
+    }
+
+    @Test
+    public void distantDummyTest() {
+        int[] tile = findDistantTile();
+        Mob mob = new Mob(testRound, tile[0], tile[1], 100, Assets.badGuyNormal, 50);
+
+        //a mob with no AI stays put however long it is left far from the player
+        for (int i = 0; i < 5; i++) {
+            mob.updateDistant(1);
+        }
+        assertEquals(tile[0], (int) mob.getX());
+        assertEquals(tile[1], (int) mob.getY());
+    }
+}
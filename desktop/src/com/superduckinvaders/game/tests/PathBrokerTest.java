@@ -0,0 +1,99 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.ai.PathBroker;
+import com.superduckinvaders.game.ai.PathListener;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PathBrokerTest {
+
+    protected static TileGraph testGraph;
+
+    @BeforeClass
+    public static void setUp() {
+        //6x5 map with a wall at x = 2 from y = 0 to y = 3, leaving a gap at the top
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        for (int y = 0; y <= 3; y++) {
+            TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+            cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+            collision.setCell(2, y, cell);
+        }
+        map.getLayers().add(collision);
+
+        testGraph = new TileGraph(new CompiledMap(map, null), 16, 16);
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(6, 5, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    //remembers the path it was given and the thread it was given on
+    private static class TestListener implements PathListener {
+        int calls = 0, pathSize = -1;
+        boolean complete = false;
+        Thread thread;
+
+        @Override
+        public void pathFound(TileGraph graph, IntArray path, boolean complete) {
+            calls++;
+            pathSize = path.size;
+            this.complete = complete;
+            thread = Thread.currentThread();
+        }
+    }
+
+    @Test
+    public void syncTest() {
+        PathBroker broker = new PathBroker(1000);
+        broker.setAsync(false);
+        TestListener first = new TestListener(), second = new TestListener();
+
+        //the same search asked for twice is only waiting once, and both are told the result
+        broker.request(testGraph, 0, 0, 4, 0, 0, first);
+        broker.request(testGraph, 0, 0, 4, 0, 0, second);
+        assertEquals(1, broker.getWaitingCount());
+
+        broker.update();
+        assertEquals(0, broker.getWaitingCount());
+        assertEquals(1, first.calls);
+        assertEquals(1, second.calls);
+        assertEquals(10, first.pathSize);
+        assertEquals(true, first.complete);
+    }
+
+    @Test
+    public void asyncTest() throws InterruptedException {
+        PathBroker broker = new PathBroker(1000);
+        broker.setAsync(true);
+        TestListener listener = new TestListener();
+
+        broker.request(testGraph, 0, 0, 4, 0, 0, listener);
+        broker.update();
+        assertEquals(0, broker.getWaitingCount());
+
+        //the result is handed out during a later update, on the thread calling update
+        for (int i = 0; i < 100 && listener.calls == 0; i++) {
+            Thread.sleep(10);
+            broker.update();
+        }
+
+        assertEquals(1, listener.calls);
+        assertEquals(10, listener.pathSize);
+        assertEquals(Thread.currentThread(), listener.thread);
+    }
+}
@@ -0,0 +1,86 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.ai.PathFollower;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PathFollowerTest {
+
+    protected static TileGraph testGraph;
+
+    @BeforeClass
+    public static void setUp() {
+        //empty 10x10 map
+        TiledMap map = new TiledMap();
+        String[] names = {"Base", "Collision", "Water"};
+        for (String name : names) {
+            TiledMapTileLayer layer = new TiledMapTileLayer(10, 10, 16, 16);
+            layer.setName(name);
+            map.getLayers().add(layer);
+        }
+
+        testGraph = new TileGraph(new CompiledMap(map, null), 16, 16);
+    }
+
+    private static PathFollower createFollower() {
+        //straight path from (0, 0) to (4, 0)
+        IntArray path = new IntArray();
+        for (int x = 1; x <= 4; x++) {
+            path.add(x);
+        }
+
+        PathFollower follower = new PathFollower();
+        follower.setPath(path, 4, 0, true);
+        return follower;
+    }
+
+    @Test
+    public void advanceTest() {
+        PathFollower follower = createFollower();
+
+        follower.advance(testGraph, 0, 0);
+        assertEquals(1, follower.getNextTile());
+
+        follower.advance(testGraph, 2, 0);
+        assertEquals(3, follower.getNextTile());
+
+        follower.advance(testGraph, 4, 0);
+        assertEquals(-1, follower.getNextTile());
+        assertEquals(false, follower.needsReplan(testGraph, 4, 0, 4, 0));
+    }
+
+    @Test
+    public void replanTest() {
+        PathFollower follower = createFollower();
+
+        //no path at all
+        assertEquals(true, new PathFollower().needsReplan(testGraph, 0, 0, 4, 0));
+
+        //on the path with the goal still near its end
+        assertEquals(false, follower.needsReplan(testGraph, 0, 0, 4, 0));
+        assertEquals(false, follower.needsReplan(testGraph, 0, 0, 4 + PathFollower.GOAL_DRIFT, 0));
+
+        //goal moved too far away
+        assertEquals(true, follower.needsReplan(testGraph, 0, 0, 5 + PathFollower.GOAL_DRIFT, 0));
+
+        //pushed off the path
+        assertEquals(true, follower.needsReplan(testGraph, 0, 3, 4, 0));
+    }
+
+    @Test
+    public void clearTest() {
+        PathFollower follower = createFollower();
+
+        //a dropped path has nothing left to follow and must be searched for again
+        follower.clear();
+        assertEquals(-1, follower.getNextTile());
+        assertEquals(true, follower.needsReplan(testGraph, 0, 0, 4, 0));
+    }
+}
@@ -0,0 +1,103 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.ai.PathSmoother;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.ai.TilePathfinder;
+import com.superduckinvaders.game.entity.CollisionSnapshot;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class PathSmootherTest {
+
+    protected static CompiledMap testMap;
+    protected static TileGraph testGraph;
+    protected static CollisionSnapshot testWorld;
+
+    //a tile sized box that walks
+    protected static Entity testEntity = new Entity(null) {
+        @Override
+        public int getWidth() {
+            return 16;
+        }
+
+        @Override
+        public int getHeight() {
+            return 16;
+        }
+
+        @Override
+        public void render(SpriteBatch spriteBatch) {
+        }
+    };
+
+    @BeforeClass
+    public static void setUp() {
+        //8x6 map with a wall at x = 3 from y = 0 to y = 3, leaving a gap at the top
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        for (int y = 0; y <= 3; y++) {
+            TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+            cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+            collision.setCell(3, y, cell);
+        }
+        map.getLayers().add(collision);
+
+        testMap = new CompiledMap(map, null);
+        testGraph = new TileGraph(testMap, 16, 16);
+        testWorld = new CollisionSnapshot(testMap, new ArrayList<Entity>());
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(8, 6, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    @Test
+    public void straightLineTest() {
+        IntArray path = new IntArray(), smoothed = new IntArray();
+
+        //a clear diagonal-then-straight path on open ground becomes a single segment
+        TilePathfinder.findPath(testGraph, 0, 5, 7, 4, 0, path);
+        PathSmoother.smooth(testWorld, testEntity, 16, 16, 8, 5 * 8, path, smoothed);
+
+        assertEquals(1, smoothed.size);
+        assertEquals(7 + 4 * 8, smoothed.get(0));
+    }
+
+    @Test
+    public void aroundWallTest() {
+        IntArray path = new IntArray(), smoothed = new IntArray();
+
+        TilePathfinder.findPath(testGraph, 0, 0, 6, 0, 0, path);
+        PathSmoother.smooth(testWorld, testEntity, 16, 16, 8, 0, path, smoothed);
+
+        //fewer points than tiles, still ending at the goal
+        assertEquals(true, smoothed.size < path.size);
+        assertEquals(6, smoothed.peek());
+
+        //every segment is clear of the wall
+        int from = 0;
+        for (int i = 0; i < smoothed.size; i++) {
+            int to = smoothed.get(i);
+            assertEquals(false, testMap.sweep((from % 8) * 16, (from / 8) * 16, 16, 16, ((to % 8) - (from % 8)) * 16,
+                    ((to / 8) - (from / 8)) * 16, CompiledMap.BLOCKED | CompiledMap.OBSTACLE, null));
+            from = to;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.ai.JumpPointPathfinder;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.ai.TilePathfinder;
+import com.superduckinvaders.game.map.CompiledMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Compares plain A* with Jump Point Search on the eight level maps, printing how many nodes each expands and how long
+ * each takes for the same random searches. Run from the project root or the assets folder; it isn't a unit test, as
+ * the timings vary from machine to machine.
+ */
+public class PathfindingBenchmark {
+
+    //how many random searches to run on each map
+    private static final int SEARCHES = 200;
+
+    //how many times to run every map's searches, the first few only to let the JIT compile the searches
+    private static final int WARM_UP_RUNS = 3, TIMED_RUNS = 5;
+
+    public static void main(String[] args) throws IOException {
+        File maps = JumpPointPathfinderTest.findMaps();
+        if (maps == null) {
+            System.err.println("Couldn't find the maps folder, run from the project root or core/assets.");
+            return;
+        }
+
+        System.out.println(String.format("%-10s %14s %14s %12s %12s", "map", "A* expanded", "JPS expanded", "A* ms", "JPS ms"));
+
+        for (String name : JumpPointPathfinderTest.MAPS) {
+            CompiledMap compiledMap = JumpPointPathfinderTest.loadMap(new File(maps, name));
+            TileGraph graph = new TileGraph(compiledMap, compiledMap.getTileWidth(), compiledMap.getTileHeight());
+            int[] searches = pickSearches(graph, new Random(1));
+
+            long aStarExpanded = 0, jumpPointExpanded = 0;
+            double aStarTime = Double.POSITIVE_INFINITY, jumpPointTime = Double.POSITIVE_INFINITY;
+
+            for (int run = 0; run < WARM_UP_RUNS + TIMED_RUNS; run++) {
+                long[] aStar = runSearches(graph, searches, false);
+                long[] jumpPoint = runSearches(graph, searches, true);
+
+                //the fastest run is the one least disturbed by everything else going on
+                if (run >= WARM_UP_RUNS) {
+                    aStarExpanded = aStar[0];
+                    jumpPointExpanded = jumpPoint[0];
+                    aStarTime = Math.min(aStarTime, aStar[1] / 1e6);
+                    jumpPointTime = Math.min(jumpPointTime, jumpPoint[1] / 1e6);
+                }
+            }
+
+            System.out.println(String.format("%-10s %14d %14d %12.2f %12.2f", name, aStarExpanded, jumpPointExpanded, aStarTime, jumpPointTime));
+        }
+    }
+
+    //picks random pairs of passable tiles, stored as startX, startY, goalX, goalY for each search
+    private static int[] pickSearches(TileGraph graph, Random random) {
+        int[] searches = new int[SEARCHES * 4];
+
+        for (int i = 0; i < searches.length; i += 2) {
+            int tileX, tileY;
+            do {
+                tileX = random.nextInt(graph.getWidth());
+                tileY = random.nextInt(graph.getHeight());
+            } while (!graph.isPassable(tileX, tileY));
+
+            searches[i] = tileX;
+            searches[i + 1] = tileY;
+        }
+
+        return searches;
+    }
+
+    //runs every search with one pathfinder, returning the total nodes expanded and the total time in nanoseconds
+    private static long[] runSearches(TileGraph graph, int[] searches, boolean jumpPoint) {
+        IntArray path = new IntArray();
+        long expanded = 0, time = 0;
+
+        for (int i = 0; i < searches.length; i += 4) {
+            long start = System.nanoTime();
+
+            if (jumpPoint) {
+                JumpPointPathfinder.findPath(graph, searches[i], searches[i + 1], searches[i + 2], searches[i + 3], 0, path);
+                time += System.nanoTime() - start;
+                expanded += JumpPointPathfinder.getExpandedCount();
+            } else {
+                TilePathfinder.findPath(graph, searches[i], searches[i + 1], searches[i + 2], searches[i + 3], 0, path);
+                time += System.nanoTime() - start;
+                expanded += TilePathfinder.getExpandedCount();
+            }
+        }
+
+        return new long[]{expanded, time};
+    }
+}
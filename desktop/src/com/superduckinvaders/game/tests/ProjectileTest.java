@@ -1,94 +1,151 @@
 package com.superduckinvaders.game.tests;
 
-import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
-import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
-import com.superduckinvaders.game.DuckGame;
-import com.superduckinvaders.game.Round;
-import com.superduckinvaders.game.assets.Assets;
-import com.superduckinvaders.game.entity.Mob;
-import com.superduckinvaders.game.entity.Projectile;
-import org.junit.BeforeClass;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.superduckinvaders.game.entity.Character;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.entity.ProjectileSystem;
+import com.superduckinvaders.game.entity.SpatialGrid;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.Before;
 import org.junit.Test;
 
-import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 
 public class ProjectileTest {
 
-    protected static DuckGame duckGame;
-    protected static Round testRound;
-
-    @BeforeClass
-    public static void setUp() {
-        duckGame = new DuckGame();
-
-        LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
-        config.width = 1280;
-        config.height = 720;
-        config.resizable = false;
-        config.title = "SUPER DUCK INVADERS! - Team Mallard";
-        new LwjglApplication(duckGame, config);
-
-        while (duckGame.onGameScreen == false) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+    protected static CompiledMap testMap;
+    protected SpatialGrid testCharacters;
+    protected ProjectileSystem testProjectiles;
+
+    @Before
+    public void setUp() {
+        //40x40 map of 16px tiles with a wall along x = 30
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        for (int y = 0; y < 40; y++) {
+            TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+            cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+            collision.setCell(30, y, cell);
+        }
+        map.getLayers().add(collision);
+
+        testMap = new CompiledMap(map, null);
+        testCharacters = new SpatialGrid(40, 40, 16, 16);
+        testProjectiles = new ProjectileSystem(testMap, testCharacters, 4, 4, 1);
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(40, 40, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    private static Character createCharacter(double x, double y) {
+        return new Character(null, x, y, 10) {
+            @Override
+            public int getCategory() {
+                return MOB;
             }
 
-        }
-        testRound = new Round(duckGame, Assets.levelOneMap);
-        try {
-            Thread.sleep(200);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+            @Override
+            public int getWidth() {
+                return 16;
+            }
+
+            @Override
+            public int getHeight() {
+                return 16;
+            }
+
+            @Override
+            public void render(SpriteBatch spriteBatch) {
+            }
+        };
     }
 
     @Test
     public void projectileMovementTest() {
-
-        //simple movement tests
         //x direction test
-        Mob testMob = new Mob(testRound, 300, 300, 5, Assets.badGuyNormal, 100);
-        Projectile testProjectile = new Projectile(testRound, testMob.getX() + 100, testMob.getY() + 100, testMob.getX() + 100, testMob.getY() + 100, 10, 10, testMob);
-        int[] expectedCoord = new int[]{400, 400};
-        int[] actualCoord = new int[]{(int) testProjectile.getX(), (int) testProjectile.getY()};
-        assertArrayEquals(expectedCoord, actualCoord);
-        testProjectile.update(1);
-        expectedCoord = new int[]{410, 400};
-        actualCoord = new int[]{(int) testProjectile.getX(), (int) testProjectile.getY()};
-        assertArrayEquals(expectedCoord, actualCoord);
+        testProjectiles.fire(100, 100, 200, 100, 10, 0, 0, 10, null);
+        assertEquals(100, (int) testProjectiles.getX(0));
+        assertEquals(100, (int) testProjectiles.getY(0));
+        testProjectiles.update(1);
+        assertEquals(110, (int) testProjectiles.getX(0));
+        assertEquals(100, (int) testProjectiles.getY(0));
 
         //y direction test
-        testProjectile = new Projectile(testRound, testMob.getX(), testMob.getY(), testMob.getX(), testMob.getY() + 100, 10, 10, testMob);
-        testProjectile.update(1);
-        expectedCoord = new int[]{300, 310};
-        actualCoord = new int[]{(int) testProjectile.getX(), (int) testProjectile.getY()};
-        assertArrayEquals(expectedCoord, actualCoord);
-
+        testProjectiles.clear();
+        testProjectiles.fire(100, 100, 100, 200, 10, 0, 0, 10, null);
+        testProjectiles.update(1);
+        assertEquals(100, (int) testProjectiles.getX(0));
+        assertEquals(110, (int) testProjectiles.getY(0));
+
+        //the offset only adds to the velocity when moving the same way
+        testProjectiles.clear();
+        testProjectiles.fire(100, 100, 200, 100, 10, 5, 0, 10, null);
+        testProjectiles.fire(100, 100, 200, 100, 10, -5, 0, 10, null);
+        testProjectiles.update(1);
+        assertEquals(115, (int) testProjectiles.getX(0));
+        assertEquals(110, (int) testProjectiles.getX(1));
     }
 
     @Test
     public void projectileCollisionTest() {
-        Mob testMob = new Mob(testRound, 300, 300, 5, Assets.badGuyNormal, 100);
-        Projectile testProjectile = new Projectile(testRound, testMob.getX() + 100, testMob.getY() + 100, testMob.getX() + 100, testMob.getY() + 100, 10, 10, testMob);
-        testRound.addEntity(testMob);
+        Character target = createCharacter(200, 100);
+        testCharacters.add(target);
+
+        //fire a projectile at the character and check it is damaged and the projectile removed
+        testProjectiles.fire(100, 104, 200, 104, 200, 0, 0, 3, null);
+        testProjectiles.update(1);
+        assertEquals(7, target.getCurrentHealth());
+        assertEquals(0, testProjectiles.size());
+
+        //projectiles pass through whoever fired them
+        testProjectiles.fire(190, 104, 300, 104, 20, 0, 0, 3, target);
+        testProjectiles.update(1);
+        assertEquals(7, target.getCurrentHealth());
+        assertEquals(1, testProjectiles.size());
+    }
 
-        //collision detection tests
-        //move the mob to some boundary of the map
-        testMob.setVelocity(-1, 0);
-        for (int i = 0; i < 100; i++) {
-            testMob.update((float) 0.1);
-        }
+    @Test
+    public void projectileRemovalTest() {
+        //a projectile stops at the wall
+        testProjectiles.fire(400, 100, 600, 100, 200, 0, 0, 10, null);
+
+        //a projectile leaves the map
+        testProjectiles.fire(100, 10, 100, 0, 200, 0, 0, 10, null);
+
+        //a slow projectile runs out of time
+        testProjectiles.fire(100, 300, 200, 300, 1, 0, 0, 10, null);
 
-        //the mob should be stuck colliding against something
-        testProjectile = new Projectile(testRound, testMob.getX(), testMob.getY() + 100, testMob.getX(), testMob.getY(), 100, 100, null);
-        //fire projectile at mob and check it is removed
-        testProjectile.update(1);
-        assertEquals(true, testProjectile.isRemoved());
+        testProjectiles.update(1);
+        assertEquals(1, testProjectiles.size());
+        assertEquals(101, (int) testProjectiles.getX(0));
 
+        testProjectiles.update(ProjectileSystem.LIFETIME);
+        assertEquals(0, testProjectiles.size());
+        assertEquals(3, testProjectiles.getPeakSize());
     }
 
+    @Test
+    public void projectileGrowthTest() {
+        //the arrays start with room for one projectile and grow to fit
+        for (int i = 0; i < 100; i++) {
+            testProjectiles.fire(100, 100 + i, 200, 100 + i, 10, 0, 0, 10, null);
+        }
+
+        testProjectiles.update(1);
+        assertEquals(100, testProjectiles.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(110, (int) testProjectiles.getX(i));
+        }
+    }
 }
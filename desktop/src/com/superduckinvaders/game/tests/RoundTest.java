@@ -4,6 +4,7 @@ import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.superduckinvaders.game.DuckGame;
 import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.ai.AI;
 import com.superduckinvaders.game.assets.Assets;
 import com.superduckinvaders.game.entity.Mob;
 import com.superduckinvaders.game.entity.Player.Powerup;
@@ -11,7 +12,11 @@ import com.superduckinvaders.game.entity.Player.Upgrade;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class RoundTest {
     protected static DuckGame duckGame;
@@ -64,7 +69,10 @@ public class RoundTest {
         testRound.createPowerup(100, 100, Powerup.INVULNERABLE);
         testRound.createProjectile(100.0, 100.0, 200.0, 200.0, 10.0, 0.0, 0.0, 10, testRound.getPlayer());
         testRound.createUpgrade(100, 100, Upgrade.GUN);
-        assertEquals(expectedMobCount + 4, testRound.getEntities().size());
+        assertEquals(expectedMobCount + 3, testRound.getEntities().size());
+
+        //projectiles are kept by the projectile system rather than as entities
+        assertEquals(1, testRound.getProjectiles().size());
     }
 
     @Test
@@ -88,4 +96,51 @@ public class RoundTest {
 
     }
 
+    @Test
+    public void adjacentRemovalTest() {
+        int playerX = (int) testRound.getPlayer().getX(), playerY = (int) testRound.getPlayer().getY();
+
+        //an AI that notes down every mob it updates
+        final List<Mob> updated = new ArrayList<Mob>();
+        AI ai = new AI(testRound) {
+            @Override
+            public void update(Mob mob, float delta) {
+                updated.add(mob);
+            }
+        };
+
+        //a row of mobs near the player, all updated every frame
+        List<Mob> row = new ArrayList<Mob>();
+        for (int i = 0; i < 7; i++) {
+            Mob mob = new Mob(testRound, playerX + i * 20, playerY + 60, 10, Assets.badGuyNormal, 10, ai, false, false);
+            testRound.addEntity(mob);
+            row.add(mob);
+        }
+
+        //remove a run of neighbours in the middle and the last one
+        row.get(1).removed = true;
+        row.get(2).removed = true;
+        row.get(3).removed = true;
+        row.get(6).removed = true;
+        testRound.update(0.01f);
+
+        //every survivor was updated exactly once, in the order they were added
+        List<Mob> survivors = new ArrayList<Mob>();
+        survivors.add(row.get(0));
+        survivors.add(row.get(4));
+        survivors.add(row.get(5));
+        assertEquals(survivors, updated);
+
+        //and they kept that order, with the removed mobs gone
+        List<Mob> mobs = testRound.getMobs();
+        assertTrue(mobs.indexOf(row.get(0)) < mobs.indexOf(row.get(4)));
+        assertEquals(mobs.indexOf(row.get(4)) + 1, mobs.indexOf(row.get(5)));
+        assertTrue(testRound.getEntities().indexOf(row.get(0)) < testRound.getEntities().indexOf(row.get(4)));
+        assertTrue(testRound.getEntities().indexOf(row.get(4)) < testRound.getEntities().indexOf(row.get(5)));
+        for (int i : new int[]{1, 2, 3, 6}) {
+            assertEquals(-1, mobs.indexOf(row.get(i)));
+            assertEquals(-1, testRound.getEntities().indexOf(row.get(i)));
+        }
+    }
+
 }
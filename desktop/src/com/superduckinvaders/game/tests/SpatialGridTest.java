@@ -0,0 +1,245 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Array;
+import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.entity.SpatialGrid;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SpatialGridTest {
+
+    protected SpatialGrid testGrid;
+
+    @Before
+    public void setUp() {
+        //10x10 buckets of 16px
+        testGrid = new SpatialGrid(10, 10, 16, 16);
+    }
+
+    //an entity of a fixed size that the tests can move around
+    protected static class TestEntity extends Entity {
+
+        private final int width, height, category;
+
+        public TestEntity(double x, double y, int width, int height, int category) {
+            super(null, x, y);
+            this.width = width;
+            this.height = height;
+            this.category = category;
+        }
+
+        public void moveTo(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public int getCategory() {
+            return category;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public void render(SpriteBatch spriteBatch) {
+        }
+    }
+
+    @Test
+    public void testAddUpdateRemove() {
+        TestEntity entity = new TestEntity(20, 20, 8, 8, Entity.MOB);
+        testGrid.add(entity);
+        assertSame(entity, testGrid.findIntersecting(18, 18, 4, 4, null, Entity.MOB));
+
+        //move to a bucket far away, the old spot is now empty and the new one is found
+        entity.moveTo(120, 100);
+        testGrid.update(entity);
+        assertNull(testGrid.findIntersecting(18, 18, 4, 4, null, Entity.MOB));
+        assertSame(entity, testGrid.findIntersecting(118, 98, 4, 4, null, Entity.MOB));
+
+        //move within its bucket
+        entity.moveTo(122, 102);
+        testGrid.update(entity);
+        assertSame(entity, testGrid.findIntersecting(128, 108, 4, 4, null, Entity.MOB));
+
+        testGrid.remove(entity);
+        assertNull(testGrid.findIntersecting(118, 98, 16, 16, null, Entity.MOB));
+
+        //removing again or updating a removed entity does nothing
+        testGrid.remove(entity);
+        testGrid.update(entity);
+        assertNull(testGrid.findIntersecting(118, 98, 16, 16, null, Entity.MOB));
+    }
+
+    @Test
+    public void testOverlapIntoNeighbouringBucket() {
+        //a wide entity whose corner is in one bucket but which reaches into the next
+        Entity wide = new TestEntity(10, 10, 30, 8, Entity.MOB);
+        testGrid.add(wide);
+
+        assertSame(wide, testGrid.findIntersecting(36, 12, 2, 2, null, Entity.MOB));
+        assertNull(testGrid.findIntersecting(41, 12, 2, 2, null, Entity.MOB));
+    }
+
+    @Test
+    public void testFindIntersectingMaskAndIgnore() {
+        Entity mob = new TestEntity(50, 50, 16, 16, Entity.MOB);
+        Entity player = new TestEntity(52, 52, 16, 16, Entity.PLAYER);
+        testGrid.add(mob);
+        testGrid.add(player);
+
+        assertSame(mob, testGrid.findIntersecting(55, 55, 4, 4, null, Entity.MOB));
+        assertSame(player, testGrid.findIntersecting(55, 55, 4, 4, null, Entity.PLAYER));
+
+        //the ignored entity is never found, even if it is the only one matching the mask
+        assertSame(player, testGrid.findIntersecting(55, 55, 4, 4, mob, Entity.CHARACTERS));
+        assertNull(testGrid.findIntersecting(55, 55, 4, 4, mob, Entity.MOB));
+
+        //nothing matches a mask of other categories
+        assertNull(testGrid.findIntersecting(55, 55, 4, 4, null, Entity.ITEM));
+    }
+
+    @Test
+    public void testFindFirstHitEarliest() {
+        Entity near = new TestEntity(40, 0, 8, 16, Entity.MOB);
+        Entity far = new TestEntity(80, 0, 8, 16, Entity.MOB);
+        //add the far one first so bucket order alone wouldn't give the right answer
+        testGrid.add(far);
+        testGrid.add(near);
+
+        assertSame(near, testGrid.findFirstHit(0, 4, 120, 0, 4, 4, 0, Entity.MOB));
+
+        //moving the other way hits the far one first
+        assertSame(far, testGrid.findFirstHit(140, 4, -120, 0, 4, 4, 0, Entity.MOB));
+
+        //stopping short hits nothing
+        assertNull(testGrid.findFirstHit(0, 4, 30, 0, 4, 4, 0, Entity.MOB));
+    }
+
+    @Test
+    public void testFindFirstHitIgnoresOwner() {
+        Entity owner = new TestEntity(0, 0, 16, 16, Entity.PLAYER);
+        Entity target = new TestEntity(60, 0, 16, 16, Entity.MOB);
+        testGrid.add(owner);
+        testGrid.add(target);
+
+        //starting inside the owner, the owner is skipped and the target is hit
+        assertSame(target, testGrid.findFirstHit(4, 4, 100, 0, 4, 4, owner.getId(), Entity.CHARACTERS));
+        assertSame(owner, testGrid.findFirstHit(4, 4, 100, 0, 4, 4, 0, Entity.CHARACTERS));
+    }
+
+    @Test
+    public void testFindFirstHitMask() {
+        Entity item = new TestEntity(40, 0, 16, 16, Entity.ITEM);
+        Entity mob = new TestEntity(80, 0, 16, 16, Entity.MOB);
+        testGrid.add(item);
+        testGrid.add(mob);
+
+        //the item is in the way but filtered out by the mask
+        assertSame(mob, testGrid.findFirstHit(0, 4, 120, 0, 4, 4, 0, Entity.CHARACTERS));
+        assertNull(testGrid.findFirstHit(0, 4, 60, 0, 4, 4, 0, Entity.CHARACTERS));
+    }
+
+    @Test
+    public void testFindFirstHitTunnelling() {
+        //a thin character that a fast mover passes right over in one step
+        Entity thin = new TestEntity(70, 30, 2, 16, Entity.MOB);
+        testGrid.add(thin);
+
+        assertSame(thin, testGrid.findFirstHit(0, 34, 150, 0, 4, 4, 0, Entity.MOB));
+
+        //diagonally as well
+        assertSame(thin, testGrid.findFirstHit(0, 0, 150, 80, 4, 4, 0, Entity.MOB));
+
+        //passing just above it misses
+        assertNull(testGrid.findFirstHit(0, 47, 150, 0, 4, 4, 0, Entity.MOB));
+    }
+
+    //adds entities 10 to the right of, 30 above and 50 down and left of (50, 50), furthest first
+    private Entity[] addAroundCentre() {
+        Entity right = new TestEntity(60, 50, 8, 8, Entity.MOB);
+        Entity above = new TestEntity(50, 80, 8, 8, Entity.MOB);
+        Entity belowLeft = new TestEntity(10, 20, 8, 8, Entity.MOB);
+        testGrid.add(belowLeft);
+        testGrid.add(above);
+        testGrid.add(right);
+
+        return new Entity[]{right, above, belowLeft};
+    }
+
+    @Test
+    public void testFindNearestRadius() {
+        Entity[] around = addAroundCentre();
+        Array<Entity> results = new Array<Entity>();
+
+        //the edge of the circle counts as inside it
+        assertEquals(2, testGrid.findNearest(50, 50, 30, -1, 0, null, results));
+        assertSame(around[0], results.get(0));
+        assertSame(around[1], results.get(1));
+
+        assertEquals(1, testGrid.findNearest(50, 50, 29.9, -1, 0, null, results));
+        assertEquals(0, testGrid.findNearest(50, 50, 9, -1, 0, null, results));
+    }
+
+    @Test
+    public void testFindNearestOrderAndLimit() {
+        Entity[] around = addAroundCentre();
+        Array<Entity> results = new Array<Entity>();
+
+        //nearest first however they were added, with 0 meaning no limit
+        assertEquals(3, testGrid.findNearest(50, 50, 100, -1, 0, null, results));
+        for (int i = 0; i < 3; i++) {
+            assertSame(around[i], results.get(i));
+        }
+
+        //a limit keeps only the nearest ones
+        assertEquals(2, testGrid.findNearest(50, 50, 100, -1, 2, null, results));
+        assertSame(around[0], results.get(0));
+        assertSame(around[1], results.get(1));
+
+        assertEquals(1, testGrid.findNearest(50, 50, 100, -1, 1, null, results));
+        assertSame(around[0], results.get(0));
+    }
+
+    @Test
+    public void testFindNearestFacing() {
+        Entity[] around = addAroundCentre();
+        Array<Entity> results = new Array<Entity>();
+
+        assertEquals(1, testGrid.findNearest(50, 50, 100, TextureSet.FACING_RIGHT, 0, null, results));
+        assertSame(around[0], results.get(0));
+
+        assertEquals(1, testGrid.findNearest(50, 50, 100, TextureSet.FACING_BACK, 0, null, results));
+        assertSame(around[1], results.get(0));
+
+        assertEquals(1, testGrid.findNearest(50, 50, 100, TextureSet.FACING_LEFT, 0, null, results));
+        assertSame(around[2], results.get(0));
+
+        assertEquals(0, testGrid.findNearest(50, 50, 100, TextureSet.FACING_FRONT, 0, null, results));
+    }
+
+    @Test
+    public void testFindNearestIgnore() {
+        Entity[] around = addAroundCentre();
+        Array<Entity> results = new Array<Entity>();
+
+        //the ignored entity is left out and doesn't use up the limit
+        assertEquals(2, testGrid.findNearest(50, 50, 100, -1, 2, around[0], results));
+        assertSame(around[1], results.get(0));
+        assertSame(around[2], results.get(1));
+    }
+}
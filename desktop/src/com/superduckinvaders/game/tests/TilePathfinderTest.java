@@ -0,0 +1,83 @@
+package com.superduckinvaders.game.tests;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.IntArray;
+import com.superduckinvaders.game.ai.TileGraph;
+import com.superduckinvaders.game.ai.TilePathfinder;
+import com.superduckinvaders.game.map.CompiledMap;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TilePathfinderTest {
+
+    protected static TileGraph testGraph;
+
+    @BeforeClass
+    public static void setUp() {
+        //6x5 map with a wall at x = 2 from y = 0 to y = 3, leaving a gap at the top
+        TiledMap map = new TiledMap();
+        map.getLayers().add(createLayer("Base"));
+        map.getLayers().add(createLayer("Water"));
+
+        TiledMapTileLayer collision = createLayer("Collision");
+        for (int y = 0; y <= 3; y++) {
+            TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+            cell.setTile(new StaticTiledMapTile(new TextureRegion()));
+            collision.setCell(2, y, cell);
+        }
+        map.getLayers().add(collision);
+
+        testGraph = new TileGraph(new CompiledMap(map, null), 16, 16);
+    }
+
+    private static TiledMapTileLayer createLayer(String name) {
+        TiledMapTileLayer layer = new TiledMapTileLayer(6, 5, 16, 16);
+        layer.setName(name);
+        return layer;
+    }
+
+    @Test
+    public void pathTest() {
+        IntArray path = new IntArray();
+
+        assertEquals(true, TilePathfinder.findPath(testGraph, 0, 0, 4, 0, 0, path));
+
+        //ends at the goal and every step is to a passable neighbour
+        assertEquals(4, path.peek());
+        int tileX = 0, tileY = 0;
+        for (int i = 0; i < path.size; i++) {
+            int nextX = path.get(i) % 6, nextY = path.get(i) / 6;
+            assertEquals(true, Math.abs(nextX - tileX) <= 1 && Math.abs(nextY - tileY) <= 1);
+            assertEquals(true, testGraph.isPassable(nextX, nextY));
+            tileX = nextX;
+            tileY = nextY;
+        }
+
+        //has to go over the top of the wall, which takes 10 steps without cutting corners
+        assertEquals(10, path.size);
+    }
+
+    @Test
+    public void startIsGoalTest() {
+        IntArray path = new IntArray();
+        path.add(1);
+
+        assertEquals(true, TilePathfinder.findPath(testGraph, 3, 3, 3, 3, 0, path));
+        assertEquals(0, path.size);
+    }
+
+    @Test
+    public void limitTest() {
+        IntArray path = new IntArray();
+
+        //gives up before getting round the wall but still gets as close as it can
+        assertEquals(false, TilePathfinder.findPath(testGraph, 0, 0, 4, 0, 3, path));
+        assertEquals(true, path.size > 0);
+        assertEquals(1, path.peek() % 6);
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ZombieAITest {
 
@@ -50,11 +51,16 @@ public class ZombieAITest {
         int testPlayerY = (int) testRound.getPlayer().getY();
         Mob testMob = new Mob(testRound, testPlayerX + 50, testPlayerY, 100, Assets.badGuyNormal, 1, new ZombieAI(testRound, 32), true, false);
 
-        while (testMob.getX() != testPlayerX + 49) {
-            testMob.update(1);
+        //step at the round's fixed rate until the mob has walked a pixel, giving up after two minutes of steps
+        int steps = 0;
+        while (testMob.getX() > testPlayerX + 49 && steps < 120 / Round.TIMESTEP) {
+            testMob.update(Round.TIMESTEP);
+            steps++;
         }
 
-        assertEquals(testPlayerX + 49, (int) testMob.getX());
+        //at 1 px/s each step moves the mob a sixtieth of a pixel, so it stops within a step of the pixel
+        assertTrue(steps < 120 / Round.TIMESTEP);
+        assertEquals(testPlayerX + 49, testMob.getX(), Round.TIMESTEP);
         assertEquals(testPlayerY, (int) testMob.getY());
     }
 
@@ -64,7 +70,7 @@ public class ZombieAITest {
         int testPlayerY = (int) testRound.getPlayer().getY();
         Mob testMob = new Mob(testRound, testPlayerX, testPlayerY, 100, Assets.badGuyNormal, 10, new ZombieAI(testRound, 32), true, false);
         int currentHealth = testRound.getPlayer().getCurrentHealth();
-        testMob.update(1);
+        testMob.update(Round.TIMESTEP);
         assertEquals(currentHealth - 1, testRound.getPlayer().getCurrentHealth());
     }
 